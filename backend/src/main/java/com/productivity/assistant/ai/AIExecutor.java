@@ -0,0 +1,206 @@
+package com.productivity.assistant.ai;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking LLM calls off the servlet threads on a fixed-size pool with a bounded
+ * queue. A full queue fails fast with 503 and a call that outlives the timeout fails
+ * with 504 and has its worker interrupted, so a slow upstream cannot absorb more
+ * than {@code ai.executor.threads} threads.
+ * <p>
+ * Streaming calls go through {@link #stream} and count against the same threads and
+ * queue, so SSE and STOMP replies cannot open more upstream calls than the pool allows.
+ * <p>
+ * Only the model call itself may run under the timeout: database writes that depend
+ * on its result belong in a dependent stage of the returned future, which runs once
+ * the call has completed and is never interrupted.
+ */
+@Component
+public class AIExecutor {
+    
+    @Value("${ai.executor.threads:8}")
+    private int threads;
+    
+    @Value("${ai.executor.queue-capacity:100}")
+    private int queueCapacity;
+    
+    @Value("${ai.executor.timeout:60000}")
+    private long timeout;
+    
+    private ThreadPoolExecutor executor;
+    
+    @PostConstruct
+    public void init() {
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "ai-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    public <T> CompletableFuture<T> submit(Supplier<T> call) {
+        return submit(call, timeout);
+    }
+    
+    /**
+     * Runs a model call on the pool and waits for it, failing with 503 or 504 like
+     * {@link #submit}. Must not be called from a pool thread.
+     */
+    public <T> T call(Supplier<T> call) {
+        return call(call, timeout);
+    }
+    
+    public <T> T call(Supplier<T> call, long timeoutMillis) {
+        return join(submit(call, timeoutMillis));
+    }
+    
+    /**
+     * Like {@link #call(Supplier)}, but fails with 504 once {@code deadline} has passed
+     * and gives the call no more than the time left.
+     */
+    public <T> T callBefore(Supplier<T> call, Instant deadline) {
+        return join(submitBefore(call, deadline));
+    }
+    
+    public <T> CompletableFuture<T> submitBefore(Supplier<T> call, Instant deadline) {
+        long remaining = Duration.between(Instant.now(), deadline).toMillis();
+        if (remaining <= 0) {
+            return CompletableFuture.failedFuture(
+                    new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "AI request timed out"));
+        }
+        return submit(call, Math.min(remaining, timeout));
+    }
+    
+    /**
+     * A caller's own view of a result it shares with others: fails with 504 after the
+     * usual timeout, or at {@code deadline} if that is sooner, without cancelling the
+     * shared call or failing it for anyone else.
+     */
+    public <T> CompletableFuture<T> within(CompletableFuture<T> shared, Instant deadline) {
+        if (shared.isDone()) {
+            return shared;
+        }
+        
+        long timeoutMillis = deadline != null
+                ? Math.min(Duration.between(Instant.now(), deadline).toMillis(), timeout)
+                : timeout;
+        CompletableFuture<T> mine = shared.copy();
+        CompletableFuture.delayedExecutor(Math.max(timeoutMillis, 0), TimeUnit.MILLISECONDS).execute(() ->
+                mine.completeExceptionally(new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "AI request timed out")));
+        return mine;
+    }
+    
+    /**
+     * Waits for a result from this pool, rethrowing its 503 or 504 as is. Must not be
+     * called from a pool thread.
+     */
+    public <T> T join(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+    
+    /**
+     * Runs a streaming model call in a pool slot: the stream starts once a thread is
+     * free and holds it until it completes, fails or is cancelled downstream. A full
+     * queue fails the stream with 503. There is no overall timeout; callers apply an
+     * idle timeout, and cancelling the returned flux frees the slot.
+     */
+    public <T> Flux<T> stream(Supplier<Flux<T>> call) {
+        return Flux.create(sink -> {
+            Runnable work = new DelegatingSecurityContextRunnable(() -> {
+                CountDownLatch done = new CountDownLatch(1);
+                Disposable upstream;
+                try {
+                    upstream = call.get()
+                            .doFinally(signal -> done.countDown())
+                            .subscribe(sink::next, sink::error, sink::complete);
+                } catch (Throwable ex) {
+                    sink.error(ex);
+                    return;
+                }
+                try {
+                    done.await();
+                } catch (InterruptedException ex) {
+                    upstream.dispose();
+                    Thread.currentThread().interrupt();
+                }
+            });
+            
+            Future<?> task;
+            try {
+                task = executor.submit(work);
+            } catch (RejectedExecutionException ex) {
+                sink.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "AI service is busy, try again shortly"));
+                return;
+            }
+            sink.onCancel(() -> task.cancel(true));
+        });
+    }
+    
+    private <T> CompletableFuture<T> submit(Supplier<T> call, long timeoutMillis) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable work = new DelegatingSecurityContextRunnable(() -> {
+            try {
+                result.complete(call.get());
+            } catch (Throwable ex) {
+                result.completeExceptionally(ex);
+            }
+        });
+        
+        Future<?> task;
+        try {
+            task = executor.submit(work);
+        } catch (RejectedExecutionException ex) {
+            result.completeExceptionally(
+                    new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "AI service is busy, try again shortly"));
+            return result;
+        }
+        
+        // Cancels only while the call is still running; once it has completed, dependent
+        // stages own the thread and the timer has nothing to interrupt.
+        CompletableFuture.delayedExecutor(timeoutMillis, TimeUnit.MILLISECONDS).execute(() -> {
+            if (result.completeExceptionally(
+                    new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "AI request timed out"))) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,96 @@
+package com.productivity.assistant.ai;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Completions keyed by prompt kind plus a hash of the full prompt text, so the same
+ * text summarized twice (by any user, or on a retry) is paid for once. Concurrent
+ * misses for the same key share a single upstream call and wait on its future, not
+ * on a thread. Entries expire after a TTL and the cache is capped at
+ * {@code ai.cache.max-entries}.
+ */
+@Component
+public class AIResultCache {
+    
+    @Value("${ai.cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${ai.cache.ttl:86400000}")
+    private long ttl;
+    
+    @Value("${ai.cache.max-entries:1000}")
+    private int maxEntries;
+    
+    private Cache<String, String> results;
+    
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void init() {
+        results = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .build();
+    }
+    
+    /**
+     * The cached result, or {@code call}'s once it completes. A caller that finds the
+     * same prompt already in flight gets that call's future back rather than waiting
+     * for it, so coalesced requests hold no thread while the first one runs.
+     */
+    public CompletableFuture<String> get(String kind, String prompt, Supplier<CompletableFuture<String>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        
+        String key = kind + ":" + ContentHash.of(prompt);
+        String cached = results.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            return leader.copy();
+        }
+        
+        // A call that finished between the lookup and taking the slot has already cached its result.
+        String result = results.getIfPresent(key);
+        if (result != null) {
+            inFlight.remove(key, mine);
+            mine.complete(result);
+            return mine.copy();
+        }
+        
+        CompletableFuture<String> upstream;
+        try {
+            upstream = call.get();
+        } catch (RuntimeException ex) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(ex);
+            throw ex;
+        }
+        upstream.whenComplete((value, ex) -> {
+            if (value != null) {
+                results.put(key, value);
+            }
+            inFlight.remove(key, mine);
+            if (ex != null) {
+                mine.completeExceptionally(ex);
+            } else {
+                mine.complete(value);
+            }
+        });
+        return mine.copy();
+    }
+}
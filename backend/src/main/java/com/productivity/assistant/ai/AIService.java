@@ -1,48 +1,174 @@
 package com.productivity.assistant.ai;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @Service
 public class AIService {
     
+    private static final String EMPTY_MESSAGE_REPLY = "Please provide a message.";
+    
+    private static final String BATCH_SUMMARY_PREAMBLE = """
+            Please provide a concise summary of each of the following notes, separately.
+            Keep each summary brief but capture all key points.
+            Respond with only a JSON array containing one object per note, in the form
+            [{"id": <note number>, "summary": "<summary>"}], and no other text.
+            """;
+    
     private final ChatClient chatClient;
     
+    private final AIResultCache resultCache;
+    
+    private final AIExecutor aiExecutor;
+    
+    private final ObjectMapper objectMapper;
+    
     @Autowired
-    public AIService(ChatClient.Builder chatClientBuilder) {
+    public AIService(ChatClient.Builder chatClientBuilder, AIResultCache resultCache, AIExecutor aiExecutor,
+                     ObjectMapper objectMapper) {
         this.chatClient = chatClientBuilder.build();
+        this.resultCache = resultCache;
+        this.aiExecutor = aiExecutor;
+        this.objectMapper = objectMapper;
     }
     
-    public String summarizeText(String text) {
+    public CompletableFuture<String> summarizeText(String text) {
+        return summarizeText(text, null);
+    }
+    
+    /**
+     * Summarizes on the AI pool, failing with 504 at {@code deadline} if one is given.
+     * Returns a future rather than blocking, so the result cache can hand identical
+     * concurrent requests the one call already running instead of a thread each.
+     */
+    public CompletableFuture<String> summarizeText(String text, Instant deadline) {
         if (text == null || text.trim().isEmpty()) {
-            return "";
+            return CompletableFuture.completedFuture("");
         }
         
-        String promptText = """
+        return cachedCall("summary", summaryPrompt(text), deadline);
+    }
+    
+    /**
+     * Streaming variant of {@link #summarizeText}: emits the summary as the model
+     * produces it, one content fragment per element.
+     */
+    public Flux<String> streamSummary(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return Flux.empty();
+        }
+        
+        return chatClient.prompt()
+                .user(summaryPrompt(text))
+                .stream()
+                .content();
+    }
+    
+    /**
+     * Summarizes several texts in one call, keyed by caller-chosen id. Ids the model
+     * left out of its answer, or all of them if the answer is not valid JSON, are
+     * missing from the returned map.
+     */
+    public Map<Long, String> summarizeBatch(Map<Long, String> texts) {
+        if (texts.isEmpty()) {
+            return Map.of();
+        }
+        
+        StringBuilder promptText = new StringBuilder(BATCH_SUMMARY_PREAMBLE);
+        texts.forEach((id, text) -> promptText.append(batchEntry(id, text)));
+        
+        String response = chatClient.prompt()
+                .user(promptText.toString())
+                .call()
+                .content();
+        return parseBatchSummaries(response);
+    }
+    
+    /**
+     * Estimated prompt tokens a text adds to a batch summary request.
+     */
+    public int batchEntryTokens(Long id, String text) {
+        return TokenEstimator.estimate(batchEntry(id, text));
+    }
+    
+    public int batchPreambleTokens() {
+        return TokenEstimator.estimate(BATCH_SUMMARY_PREAMBLE);
+    }
+    
+    private static String batchEntry(Long id, String text) {
+        return "\n=== Note " + id + " ===\n" + text + "\n";
+    }
+    
+    private Map<Long, String> parseBatchSummaries(String response) {
+        Map<Long, String> summaries = new HashMap<>();
+        if (response == null) {
+            return summaries;
+        }
+        
+        // Models often wrap JSON in a code fence or a sentence; take the outermost array.
+        int start = response.indexOf('[');
+        int end = response.lastIndexOf(']');
+        if (start < 0 || end <= start) {
+            return summaries;
+        }
+        
+        try {
+            for (JsonNode entry : objectMapper.readTree(response.substring(start, end + 1))) {
+                JsonNode id = entry.get("id");
+                JsonNode summary = entry.get("summary");
+                if (id != null && id.canConvertToLong() && summary != null && summary.isTextual()) {
+                    summaries.put(id.asLong(), summary.asText());
+                }
+            }
+        } catch (JsonProcessingException ex) {
+            summaries.clear();
+        }
+        return summaries;
+    }
+    
+    private CompletableFuture<String> cachedCall(String kind, String promptText, Instant deadline) {
+        Supplier<String> call = () -> chatClient.prompt()
+                .user(promptText)
+                .call()
+                .content();
+        CompletableFuture<String> shared = resultCache.get(kind, promptText,
+                () -> deadline != null ? aiExecutor.submitBefore(call, deadline) : aiExecutor.submit(call));
+        return aiExecutor.within(shared, deadline);
+    }
+    
+    private String summaryPrompt(String text) {
+        return """
             Please provide a concise summary of the following text.
             Keep the summary brief but capture all key points.
             
             Text to summarize:
             %s
             """.formatted(text);
-        
-        return chatClient.prompt()
-                .user(promptText)
-                .call()
-                .content();
     }
     
-    public List<String> generateTasksFromText(String text) {
+    public CompletableFuture<List<String>> generateTasksFromText(String text) {
+        return generateTasksFromText(text, null);
+    }
+    
+    public CompletableFuture<List<String>> generateTasksFromText(String text, Instant deadline) {
         if (text == null || text.trim().isEmpty()) {
-            return new ArrayList<>();
+            return CompletableFuture.completedFuture(new ArrayList<>());
         }
         
         String promptText = """
@@ -54,11 +180,10 @@ public class AIService {
             %s
             """.formatted(text);
         
-        String response = chatClient.prompt()
-                .user(promptText)
-                .call()
-                .content();
-        
+        return cachedCall("tasks", promptText, deadline).thenApply(AIService::parseTasks);
+    }
+    
+    private static List<String> parseTasks(String response) {
         List<String> tasks = new ArrayList<>();
         String[] lines = response.split("\n");
         for (String line : lines) {
@@ -96,27 +221,74 @@ public class AIService {
                 .content();
     }
     
-    public String chatWithAssistant(String userMessage, List<String> conversationHistory) {
+    public String chatWithAssistant(String userMessage, ChatContext context) {
+        if (userMessage == null || userMessage.trim().isEmpty()) {
+            return EMPTY_MESSAGE_REPLY;
+        }
+        
+        return chatClient.prompt()
+                .user(chatPrompt(userMessage, context))
+                .call()
+                .content();
+    }
+    
+    /**
+     * Streaming variant of {@link #chatWithAssistant}: emits the reply as the model
+     * produces it, one content fragment per element.
+     */
+    public Flux<String> streamChat(String userMessage, ChatContext context) {
         if (userMessage == null || userMessage.trim().isEmpty()) {
-            return "Please provide a message.";
+            return Flux.just(EMPTY_MESSAGE_REPLY);
         }
         
-        StringBuilder context = new StringBuilder();
-        context.append("You are a helpful productivity assistant. ");
-        context.append("Help users manage their tasks, notes, and improve productivity.\n\n");
+        return chatClient.prompt()
+                .user(chatPrompt(userMessage, context))
+                .stream()
+                .content();
+    }
+    
+    private String chatPrompt(String userMessage, ChatContext context) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("You are a helpful productivity assistant. ");
+        prompt.append("Help users manage their tasks, notes, and improve productivity.\n\n");
+        
+        if (context.summary() != null && !context.summary().isBlank()) {
+            prompt.append("Summary of the earlier conversation:\n");
+            prompt.append(context.summary()).append("\n\n");
+        }
         
-        if (conversationHistory != null && !conversationHistory.isEmpty()) {
-            context.append("Previous conversation:\n");
-            for (String msg : conversationHistory) {
-                context.append(msg).append("\n");
+        if (!context.turns().isEmpty()) {
+            prompt.append("Previous conversation:\n");
+            for (String msg : context.turns()) {
+                prompt.append(msg).append("\n");
             }
-            context.append("\n");
+            prompt.append("\n");
         }
         
-        context.append("User: ").append(userMessage);
+        prompt.append("User: ").append(userMessage);
+        return prompt.toString();
+    }
+    
+    /**
+     * Folds older chat turns into the running conversation summary.
+     */
+    public String summarizeConversation(String previousSummary, List<String> turns, int maxTokens) {
+        String promptText = """
+            You maintain a running summary of a conversation between a user and a productivity assistant.
+            Update the summary below with the new turns. Keep facts, decisions, open questions and
+            anything the user asked to remember; drop small talk. Use at most %d words.
+            
+            Current summary:
+            %s
+            
+            New turns:
+            %s
+            """.formatted(maxTokens * 3 / 4,
+                         previousSummary != null ? previousSummary : "(none)",
+                         String.join("\n", turns));
         
         return chatClient.prompt()
-                .user(context.toString())
+                .user(promptText)
                 .call()
                 .content();
     }
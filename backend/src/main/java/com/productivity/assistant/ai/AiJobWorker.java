@@ -0,0 +1,229 @@
+package com.productivity.assistant.ai;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productivity.assistant.dto.AiJobDto;
+import com.productivity.assistant.dto.BatchSummaryResult;
+import com.productivity.assistant.dto.NoteDto;
+import com.productivity.assistant.entity.AiJob;
+import com.productivity.assistant.entity.User;
+import com.productivity.assistant.repository.UserRepository;
+import com.productivity.assistant.service.AiJobService;
+import com.productivity.assistant.service.NoteService;
+import com.productivity.assistant.service.TaskService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Polls {@code ai_jobs} for due work and runs it on a fixed pool of
+ * {@code ai.jobs.workers} threads. Only as many jobs are claimed as there are idle
+ * workers, so unclaimed jobs stay visible to other instances. When a job finishes
+ * or fails for good, its owner is notified on {@code /user/queue/jobs}.
+ * <p>
+ * Model calls run through {@link AIExecutor} against a deadline of
+ * {@code ai.jobs.timeout} from the claim, which must leave room for the final write
+ * before {@code ai.jobs.stale-after}, so a live job is not requeued under its worker.
+ */
+@Component
+public class AiJobWorker {
+    
+    @Autowired
+    private AiJobService aiJobService;
+    
+    @Autowired
+    private AIService aiService;
+    
+    @Autowired
+    private NoteService noteService;
+    
+    @Autowired
+    private NoteBatchSummarizer noteBatchSummarizer;
+    
+    @Autowired
+    private TaskService taskService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private AIExecutor aiExecutor;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${ai.jobs.workers:2}")
+    private int workers;
+    
+    @Value("${ai.jobs.timeout:5m}")
+    private Duration timeout;
+    
+    @Value("${ai.jobs.stale-after:10m}")
+    private Duration staleAfter;
+    
+    @Value("${ai.jobs.write-timeout-seconds:10}")
+    private int writeTimeoutSeconds;
+    
+    private TransactionTemplate writeTransaction;
+    
+    private final AtomicInteger running = new AtomicInteger();
+    
+    private ExecutorService executor;
+    
+    @PostConstruct
+    public void init() {
+        if (timeout.plusSeconds(writeTimeoutSeconds).compareTo(staleAfter) >= 0) {
+            throw new IllegalStateException("ai.jobs.timeout (" + timeout + ") plus ai.jobs.write-timeout-seconds ("
+                    + writeTimeoutSeconds + "s) must be shorter than ai.jobs.stale-after (" + staleAfter + ")");
+        }
+        writeTransaction = new TransactionTemplate(transactionManager);
+        writeTransaction.setTimeout(writeTimeoutSeconds);
+        
+        AtomicInteger count = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "ai-job-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        // Jobs cut off here are still marked running and are requeued once stale.
+        executor.shutdownNow();
+    }
+    
+    @Scheduled(fixedDelayString = "${ai.jobs.poll-interval:2000}")
+    public void poll() {
+        int idle = workers - running.get();
+        if (idle <= 0) {
+            return;
+        }
+        
+        List<AiJob> jobs = aiJobService.claimDue(idle);
+        for (AiJob job : jobs) {
+            running.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    run(job);
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${ai.jobs.maintenance-interval:60000}")
+    public void maintain() {
+        aiJobService.maintain();
+    }
+    
+    private void run(AiJob job) {
+        Optional<AiJobDto> result;
+        try {
+            result = Optional.of(execute(job));
+        } catch (Exception ex) {
+            result = aiJobService.fail(job, ex.getMessage() != null ? ex.getMessage() : ex.toString(), isRetryable(ex));
+            if (result.isEmpty() || result.get().getStatus() != AiJob.JobStatus.FAILED) {
+                return;
+            }
+        }
+        notifyOwner(job.getUserId(), result.get());
+    }
+    
+    /**
+     * Client errors such as a deleted note or an oversized request fail the same way
+     * on every attempt. A conflict is the exception: the note changed, so a retry can
+     * summarize the new content.
+     */
+    private static boolean isRetryable(Exception ex) {
+        return !(ex instanceof ResponseStatusException status
+                && status.getStatusCode().is4xxClientError()
+                && status.getStatusCode().value() != HttpStatus.CONFLICT.value());
+    }
+    
+    private AiJobDto execute(AiJob job) throws JsonProcessingException {
+        // Counted from the claim, so the job finishes or fails well before it is stale.
+        Instant deadline = job.getStartedAt().atZone(ZoneId.systemDefault()).toInstant().plus(timeout);
+        
+        Map<String, Object> response = new LinkedHashMap<>();
+        return switch (job.getType()) {
+            case SUMMARIZE_NOTE -> {
+                aiJobService.requireNotes(List.of(job.getNoteId()), job.getUserId());
+                Optional<String> current = noteService.getCurrentSummary(job.getNoteId(), job.getUserId());
+                if (current.isPresent()) {
+                    response.put("summary", current.get());
+                    yield aiJobService.succeed(job, objectMapper.writeValueAsString(response));
+                }
+                
+                NoteDto note = noteService.getNoteById(job.getNoteId(), job.getUserId());
+                String summary = aiExecutor.join(aiService.summarizeText(note.getContent(), deadline));
+                note.setAiSummary(summary);
+                response.put("summary", summary);
+                yield writeAndSucceed(job, objectMapper.writeValueAsString(response),
+                                      () -> noteService.updateSummary(job.getNoteId(), note, job.getUserId()));
+            }
+            case SUMMARIZE_NOTES -> {
+                List<Long> noteIds = Arrays.stream(job.getInputText().split(","))
+                        .map(Long::valueOf)
+                        .toList();
+                BatchSummaryResult summaries = noteBatchSummarizer.summarize(noteIds, job.getUserId(), deadline);
+                yield aiJobService.succeed(job, objectMapper.writeValueAsString(summaries));
+            }
+            case GENERATE_TASKS -> {
+                List<String> taskTitles = aiExecutor.join(
+                        aiService.generateTasksFromText(job.getInputText(), deadline));
+                response.put("tasks", taskTitles);
+                response.put("created", job.isAutoCreate());
+                yield writeAndSucceed(job, objectMapper.writeValueAsString(response), () -> {
+                    if (job.isAutoCreate()) {
+                        taskService.createAiTasks(taskTitles, job.getUserId());
+                    }
+                });
+            }
+        };
+    }
+    
+    /**
+     * Writes a job's side effects and marks it succeeded in one transaction, so a job
+     * requeued as stale meanwhile leaves no tasks behind for its next attempt to repeat.
+     */
+    private AiJobDto writeAndSucceed(AiJob job, String result, Runnable write) {
+        return writeTransaction.execute(status -> {
+            write.run();
+            return aiJobService.succeed(job, result);
+        });
+    }
+    
+    private void notifyOwner(Long userId, AiJobDto job) {
+        userRepository.findById(userId)
+                .map(User::getUsername)
+                .ifPresent(username -> messagingTemplate.convertAndSendToUser(username, "/queue/jobs", job));
+    }
+}
@@ -0,0 +1,11 @@
+package com.productivity.assistant.ai;
+
+import java.util.List;
+
+/**
+ * Conversation context for one prompt: a rolling summary of earlier turns (may be
+ * null), the recent turns that fit the token budget in chronological order, and
+ * how many turns were left out. A latest turn cut down to fit counts as left out.
+ */
+public record ChatContext(String summary, List<String> turns, int omittedTurns) {
+}
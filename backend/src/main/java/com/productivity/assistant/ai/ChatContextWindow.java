@@ -0,0 +1,129 @@
+package com.productivity.assistant.ai;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps chat prompts within a token budget. {@code ai.chat.context-tokens} covers the
+ * rolling summary, the user's new message and as many of the newest turns, verbatim,
+ * as still fit; older turns are folded into the summary by a background model call.
+ * Messages over {@code ai.chat.max-message-tokens} are rejected, so prompt size stays
+ * bounded however long a conversation runs and whatever a single message contains.
+ */
+@Component
+public class ChatContextWindow {
+    
+    @Autowired
+    private AIService aiService;
+    
+    @Autowired
+    private AIExecutor aiExecutor;
+    
+    @Autowired
+    private ConversationStore conversationStore;
+    
+    @Value("${ai.chat.context-tokens:2000}")
+    private int contextTokens;
+    
+    @Value("${ai.chat.summary-tokens:300}")
+    private int summaryTokens;
+    
+    @Value("${ai.chat.max-turns:100}")
+    private int maxTurns;
+    
+    @Value("${ai.chat.max-message-tokens:500}")
+    private int maxMessageTokens;
+    
+    /**
+     * Builds the context for a new user message from the stored conversation. Fails
+     * with 400 if the message is over the per-message limit. Nothing is stored until
+     * {@link #record} receives the reply, so a failed call leaves no unanswered turn.
+     */
+    public ChatContext begin(String username, String userMessage) {
+        int messageTokens = TokenEstimator.estimate(userMessage);
+        if (messageTokens > maxMessageTokens) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Message is too long (limit is about " + maxMessageTokens + " tokens)");
+        }
+        
+        return conversationStore.update(username, conversation -> build(conversation, messageTokens));
+    }
+    
+    /**
+     * Records a user message together with the assistant's reply, and folds turns
+     * that no longer fit into the summary.
+     */
+    public void record(String username, String userMessage, String reply) {
+        Compaction compaction = conversationStore.update(username, conversation -> {
+            if (userMessage != null && !userMessage.isBlank()) {
+                conversation.add("User: " + userMessage, maxTurns);
+            }
+            conversation.add("Assistant: " + reply, maxTurns);
+            
+            // Folds as if the next message were as long as allowed, so the next prompt
+            // never has to leave out turns that are not yet in the summary.
+            ChatContext context = build(conversation, maxMessageTokens);
+            List<String> folded = conversation.beginCompaction(context.omittedTurns());
+            return folded.isEmpty() ? null : new Compaction(context.summary(), folded);
+        });
+        if (compaction != null) {
+            compact(username, compaction);
+        }
+    }
+    
+    public void clear(String username) {
+        conversationStore.remove(username);
+    }
+    
+    private ChatContext build(Conversation conversation, int messageTokens) {
+        String summary = conversation.summary();
+        List<String> turns = conversation.turns();
+        
+        int budget = contextTokens - TokenEstimator.estimate(summary) - messageTokens;
+        List<String> kept = new ArrayList<>();
+        int verbatim = 0;
+        for (int i = turns.size() - 1; i >= 0; i--) {
+            String turn = turns.get(i);
+            int tokens = TokenEstimator.estimate(turn);
+            if (tokens > budget) {
+                // A single oversized latest turn is cut down rather than dropped entirely.
+                // It still counts as omitted, so the whole turn is folded into the summary
+                // and the part cut off here is not lost.
+                if (kept.isEmpty() && budget > 0) {
+                    kept.add(TokenEstimator.truncate(turn, budget));
+                }
+                break;
+            }
+            kept.add(turn);
+            verbatim++;
+            budget -= tokens;
+        }
+        Collections.reverse(kept);
+        return new ChatContext(summary, kept, turns.size() - verbatim);
+    }
+    
+    /**
+     * Summarizes the reserved turns in the background. At most one summary update runs
+     * per conversation; turns that fall out meanwhile are picked up after the next reply.
+     */
+    private void compact(String username, Compaction compaction) {
+        aiExecutor.submit(() -> aiService.summarizeConversation(compaction.summary(), compaction.turns(), summaryTokens))
+                .whenComplete((summary, ex) -> conversationStore.updateIfPresent(username, conversation -> {
+                    if (ex == null && summary != null && !summary.isBlank()) {
+                        conversation.finishCompaction(TokenEstimator.truncate(summary, summaryTokens));
+                    } else {
+                        conversation.abortCompaction();
+                    }
+                }));
+    }
+    
+    private record Compaction(String summary, List<String> turns) {
+    }
+}
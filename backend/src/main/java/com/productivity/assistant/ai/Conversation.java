@@ -0,0 +1,94 @@
+package com.productivity.assistant.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One user's chat state: recent turns kept verbatim, oldest first, plus a rolling
+ * summary of the turns that have been folded out of them. Not thread-safe;
+ * {@link ConversationStore} serializes access per user.
+ * <p>
+ * Turns are numbered from the start of the conversation so a summary computed in the
+ * background folds exactly the turns it read, even if newer turns arrived or the
+ * turn cap dropped some in the meantime.
+ */
+public class Conversation {
+    
+    // Rough per-string cost on the heap: object headers plus the list slot.
+    private static final int STRING_OVERHEAD = 56;
+    
+    private final List<String> turns = new ArrayList<>();
+    
+    private long firstTurn;
+    
+    private String summary;
+    
+    private long compactingUpTo = -1;
+    
+    private long bytes;
+    
+    public void add(String turn, int maxTurns) {
+        turns.add(turn);
+        bytes += sizeOf(turn);
+        while (turns.size() > maxTurns) {
+            bytes -= sizeOf(turns.remove(0));
+            firstTurn++;
+        }
+    }
+    
+    public String summary() {
+        return summary;
+    }
+    
+    public List<String> turns() {
+        return new ArrayList<>(turns);
+    }
+    
+    /**
+     * Approximate heap held by the turns and summary.
+     */
+    public long bytes() {
+        return bytes;
+    }
+    
+    /**
+     * Reserves the oldest {@code count} turns for summarizing. Returns an empty list if
+     * a summary is already being computed.
+     */
+    public List<String> beginCompaction(int count) {
+        if (compactingUpTo >= 0 || count <= 0) {
+            return List.of();
+        }
+        int size = Math.min(count, turns.size());
+        compactingUpTo = firstTurn + size;
+        return new ArrayList<>(turns.subList(0, size));
+    }
+    
+    /**
+     * Replaces the summary and drops the turns it now covers.
+     */
+    public void finishCompaction(String newSummary) {
+        if (compactingUpTo < 0) {
+            return;
+        }
+        int folded = (int) Math.max(0, Math.min(compactingUpTo - firstTurn, turns.size()));
+        List<String> dropped = turns.subList(0, folded);
+        for (String turn : dropped) {
+            bytes -= sizeOf(turn);
+        }
+        dropped.clear();
+        firstTurn += folded;
+        
+        bytes += sizeOf(newSummary) - sizeOf(summary);
+        summary = newSummary;
+        compactingUpTo = -1;
+    }
+    
+    public void abortCompaction() {
+        compactingUpTo = -1;
+    }
+    
+    private static long sizeOf(String text) {
+        return text == null ? 0 : STRING_OVERHEAD + 2L * text.length();
+    }
+}
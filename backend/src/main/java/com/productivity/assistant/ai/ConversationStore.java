@@ -0,0 +1,186 @@
+package com.productivity.assistant.ai;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-memory chat conversations keyed by username, shared by the STOMP and REST chat.
+ * <p>
+ * Every read or change of a user's conversation runs under that user's lock stripe,
+ * so two tabs cannot interleave edits and eviction never removes a conversation in
+ * the middle of a change. Conversations idle longer than {@code ai.chat.idle-ttl}
+ * are dropped by a periodic sweep, and when the estimated total size passes
+ * {@code ai.chat.max-memory} the least recently used ones are evicted until it is
+ * back under 90% of the cap.
+ */
+@Component
+public class ConversationStore {
+    
+    private static final int STRIPES = 64;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${ai.chat.idle-ttl:30m}")
+    private Duration idleTtl;
+    
+    @Value("${ai.chat.max-memory:64MB}")
+    private DataSize maxMemory;
+    
+    private final ConcurrentHashMap<String, Entry> conversations = new ConcurrentHashMap<>();
+    
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    
+    private final AtomicLong totalBytes = new AtomicLong();
+    
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        Gauge.builder("chat.conversations", conversations, Map::size)
+                .description("Chat conversations held in memory")
+                .register(meterRegistry);
+        Gauge.builder("chat.conversations.bytes", totalBytes, AtomicLong::get)
+                .description("Estimated heap held by chat conversations")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Runs {@code action} on the user's conversation, creating it if needed.
+     */
+    public <T> T update(String username, Function<Conversation, T> action) {
+        T result;
+        ReentrantLock lock = stripe(username);
+        lock.lock();
+        try {
+            Entry entry = conversations.computeIfAbsent(username, k -> new Entry());
+            result = apply(entry, action);
+        } finally {
+            lock.unlock();
+        }
+        
+        if (totalBytes.get() > maxMemory.toBytes()) {
+            evictLeastRecentlyUsed();
+        }
+        return result;
+    }
+    
+    /**
+     * Runs {@code action} on the user's conversation only if it still exists, e.g. when
+     * a background summary completes after the user cleared the chat.
+     */
+    public void updateIfPresent(String username, Consumer<Conversation> action) {
+        ReentrantLock lock = stripe(username);
+        lock.lock();
+        try {
+            Entry entry = conversations.get(username);
+            if (entry != null) {
+                apply(entry, conversation -> {
+                    action.accept(conversation);
+                    return null;
+                });
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void remove(String username) {
+        ReentrantLock lock = stripe(username);
+        lock.lock();
+        try {
+            Entry entry = conversations.remove(username);
+            if (entry != null) {
+                totalBytes.addAndGet(-entry.conversation.bytes());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${ai.chat.eviction-interval:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTtl.toMillis();
+        for (Map.Entry<String, Entry> e : conversations.entrySet()) {
+            if (e.getValue().lastAccess < cutoff) {
+                removeIf(e.getKey(), entry -> entry.lastAccess < cutoff);
+            }
+        }
+    }
+    
+    private void evictLeastRecentlyUsed() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long target = maxMemory.toBytes() * 9 / 10;
+            List<Map.Entry<String, Long>> byAge = conversations.entrySet().stream()
+                    .map(e -> Map.entry(e.getKey(), e.getValue().lastAccess))
+                    .sorted(Comparator.comparingLong(Map.Entry::getValue))
+                    .toList();
+            for (Map.Entry<String, Long> candidate : byAge) {
+                if (totalBytes.get() <= target) {
+                    break;
+                }
+                removeIf(candidate.getKey(), entry -> entry.lastAccess <= candidate.getValue());
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+    
+    private void removeIf(String username, Predicate<Entry> stillEligible) {
+        ReentrantLock lock = stripe(username);
+        lock.lock();
+        try {
+            Entry entry = conversations.get(username);
+            if (entry != null && stillEligible.test(entry)) {
+                conversations.remove(username);
+                totalBytes.addAndGet(-entry.conversation.bytes());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private <T> T apply(Entry entry, Function<Conversation, T> action) {
+        long before = entry.conversation.bytes();
+        try {
+            return action.apply(entry.conversation);
+        } finally {
+            entry.lastAccess = System.currentTimeMillis();
+            totalBytes.addAndGet(entry.conversation.bytes() - before);
+        }
+    }
+    
+    private ReentrantLock stripe(String username) {
+        return stripes[Math.floorMod(username.hashCode(), STRIPES)];
+    }
+    
+    private static class Entry {
+        private final Conversation conversation = new Conversation();
+        private volatile long lastAccess = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,148 @@
+package com.productivity.assistant.ai;
+
+import com.productivity.assistant.dto.BatchSummaryResult;
+import com.productivity.assistant.dto.NoteDto;
+import com.productivity.assistant.service.NoteService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Summarizes many notes with few model calls by packing several notes into each
+ * prompt, up to {@code ai.batch.token-budget} estimated prompt tokens and
+ * {@code ai.batch.max-notes} notes. A note too large to share a prompt is
+ * summarized alone, and any note the model leaves out of a batch answer is retried
+ * on its own. Notes whose stored summary is still current are not sent at all.
+ * <p>
+ * Each model call goes through {@link AIExecutor} under its timeout, and summaries
+ * are written on the calling thread afterwards, so a timeout never interrupts a
+ * write. Not to be called from an {@link AIExecutor} thread.
+ */
+@Component
+public class NoteBatchSummarizer {
+    
+    @Autowired
+    private AIService aiService;
+    
+    @Autowired
+    private AIExecutor aiExecutor;
+    
+    @Autowired
+    private NoteService noteService;
+    
+    @Value("${ai.batch.token-budget:6000}")
+    private int tokenBudget;
+    
+    @Value("${ai.batch.max-notes:10}")
+    private int maxNotesPerBatch;
+    
+    @Value("${ai.batch.max-request-notes:500}")
+    private int maxRequestNotes;
+    
+    public BatchSummaryResult summarize(List<Long> noteIds, Long userId) {
+        return summarize(noteIds, userId, null);
+    }
+    
+    /**
+     * Summarizes with an overall deadline: model calls get at most the time left, and
+     * once it has passed the next call fails with 504. Summaries already written stay.
+     */
+    public BatchSummaryResult summarize(List<Long> noteIds, Long userId, Instant deadline) {
+        if (noteIds == null || noteIds.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "noteIds is required");
+        }
+        if (noteIds.size() > maxRequestNotes) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxRequestNotes + " notes can be summarized per request");
+        }
+        
+        long start = System.currentTimeMillis();
+        Map<Boolean, List<NoteDto>> notes = noteService.getNotesBySummaryCurrent(new LinkedHashSet<>(noteIds), userId);
+        
+        Map<Long, String> summaries = new LinkedHashMap<>();
+        for (NoteDto note : notes.get(true)) {
+            summaries.put(note.getId(), note.getAiSummary());
+        }
+        
+        List<NoteDto> stale = notes.get(false).stream()
+                .filter(n -> n.getContent() != null && !n.getContent().isBlank())
+                .toList();
+        List<Long> conflicts = new ArrayList<>();
+        int modelCalls = 0;
+        int summarized = 0;
+        for (List<NoteDto> batch : pack(stale)) {
+            Map<Long, String> results = new LinkedHashMap<>();
+            if (batch.size() > 1) {
+                Map<Long, String> texts = new LinkedHashMap<>();
+                for (NoteDto note : batch) {
+                    texts.put(note.getId(), note.getContent());
+                }
+                results.putAll(callModel(() -> aiService.summarizeBatch(texts), deadline));
+                modelCalls++;
+            }
+            
+            for (NoteDto note : batch) {
+                String summary = results.get(note.getId());
+                if (summary == null) {
+                    summary = aiExecutor.join(aiService.summarizeText(note.getContent(), deadline));
+                    modelCalls++;
+                }
+                
+                note.setAiSummary(summary);
+                try {
+                    noteService.updateSummary(note.getId(), note, userId);
+                } catch (ResponseStatusException ex) {
+                    if (ex.getStatusCode().value() != HttpStatus.CONFLICT.value()) {
+                        throw ex;
+                    }
+                    conflicts.add(note.getId());
+                    continue;
+                }
+                summaries.put(note.getId(), summary);
+                summarized++;
+            }
+        }
+        
+        return new BatchSummaryResult(summaries, summarized, modelCalls, conflicts,
+                                      System.currentTimeMillis() - start);
+    }
+    
+    private <T> T callModel(Supplier<T> call, Instant deadline) {
+        return deadline != null ? aiExecutor.callBefore(call, deadline) : aiExecutor.call(call);
+    }
+    
+    /**
+     * Greedily fills batches in request order, starting a new one when the next note
+     * would exceed the token budget or the per-batch note limit.
+     */
+    private List<List<NoteDto>> pack(List<NoteDto> notes) {
+        int available = tokenBudget - aiService.batchPreambleTokens();
+        List<List<NoteDto>> batches = new ArrayList<>();
+        List<NoteDto> current = new ArrayList<>();
+        int used = 0;
+        for (NoteDto note : notes) {
+            int tokens = aiService.batchEntryTokens(note.getId(), note.getContent());
+            if (!current.isEmpty() && (used + tokens > available || current.size() >= maxNotesPerBatch)) {
+                batches.add(current);
+                current = new ArrayList<>();
+                used = 0;
+            }
+            current.add(note);
+            used += tokens;
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+}
@@ -0,0 +1,31 @@
+package com.productivity.assistant.ai;
+
+/**
+ * Approximate token counts for budgeting prompts without the model's tokenizer.
+ * English text averages about four characters per token across current models.
+ */
+public final class TokenEstimator {
+    
+    private static final int CHARS_PER_TOKEN = 4;
+    
+    private TokenEstimator() {
+    }
+    
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+    
+    /**
+     * Cuts text down to roughly {@code tokens} tokens, marking the cut with an ellipsis.
+     */
+    public static String truncate(String text, int tokens) {
+        int maxChars = Math.max(0, tokens) * CHARS_PER_TOKEN;
+        if (text == null || text.length() <= maxChars) {
+            return text;
+        }
+        return text.substring(0, Math.max(0, maxChars - 1)) + "…";
+    }
+}
@@ -0,0 +1,20 @@
+package com.productivity.assistant.config;
+
+/**
+ * Hibernate second-level cache region names. Sizes and expiry for each region are
+ * set in {@code application.conf} (Caffeine JCache).
+ */
+public final class CacheRegions {
+    
+    public static final String USERS = "users";
+    public static final String USER_NATURAL_IDS = "users-by-username";
+    public static final String TASKS = "tasks";
+    public static final String NOTES = "notes";
+    public static final String TASK_LISTINGS = "task-listings";
+    public static final String NOTE_LISTINGS = "note-listings";
+    public static final String TASK_LOOKUPS = "task-lookups";
+    public static final String NOTE_LOOKUPS = "note-lookups";
+    
+    private CacheRegions() {
+    }
+}
@@ -0,0 +1,54 @@
+package com.productivity.assistant.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Builds the application datasource. With replicas configured it routes read-only
+ * transactions to them; otherwise it is the plain Hikari pool Spring Boot would
+ * have created.
+ */
+@Configuration
+@EnableConfigurationProperties({DataSourceProperties.class, ReplicaProperties.class})
+public class DataSourceConfig {
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    
+    @Bean
+    public ReplicaPool replicaPool(ReplicaProperties properties, DataSourceProperties primary,
+                                   MeterRegistry meterRegistry) {
+        return new ReplicaPool(properties, primary, meterRegistry);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPool replicaPool,
+                                 ReplicaProperties properties) {
+        if (replicaPool.isEmpty()) {
+            return primaryDataSource;
+        }
+        
+        ReadYourWrites readYourWrites = new ReadYourWrites(properties.getReadYourWritesWindow().toMillis());
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(replicaPool, readYourWrites);
+        Map<Object, Object> targets = replicaPool.targets();
+        targets.put(ReadWriteRoutingDataSource.PRIMARY, primaryDataSource);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
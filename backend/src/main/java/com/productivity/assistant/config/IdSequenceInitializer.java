@@ -0,0 +1,33 @@
+package com.productivity.assistant.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tasks and notes draw ids from pooled sequences (emulated as tables on MySQL) so
+ * inserts can be batched. Rows created while the tables used auto-increment ids
+ * would collide with a fresh sequence, so the sequence is moved past them on startup.
+ */
+@Component
+public class IdSequenceInitializer implements ApplicationRunner {
+    
+    private static final int ALLOCATION_SIZE = 50;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        advance("task_seq", "tasks");
+        advance("note_seq", "notes");
+    }
+    
+    private void advance(String sequence, String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        jdbcTemplate.update("UPDATE " + sequence + " SET next_val = ? WHERE next_val <= ?",
+                maxId + ALLOCATION_SIZE + 1, maxId + ALLOCATION_SIZE);
+    }
+}
@@ -0,0 +1,75 @@
+package com.productivity.assistant.config;
+
+import com.productivity.assistant.security.AuthenticatedUser;
+import com.productivity.assistant.service.AfterCommit;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Sends connections for read-only transactions to a replica and everything else to
+ * the primary. Must sit behind a {@code LazyConnectionDataSourceProxy} so the lookup
+ * happens on the first statement, after the transaction's read-only flag is set.
+ * Reads fall back to the primary when no replica is within the lag tolerance, when
+ * the current user wrote recently, or inside {@link #onPrimary}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    
+    public static final String PRIMARY = "primary";
+    
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+    
+    private final ReplicaPool replicas;
+    
+    private final ReadYourWrites readYourWrites;
+    
+    public ReadWriteRoutingDataSource(ReplicaPool replicas, ReadYourWrites readYourWrites) {
+        this.replicas = replicas;
+        this.readYourWrites = readYourWrites;
+    }
+    
+    /**
+     * Runs work that must see every committed write (e.g. building an in-memory index
+     * that later writes only patch) against the primary.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                FORCE_PRIMARY.remove();
+            } else {
+                FORCE_PRIMARY.set(previous);
+            }
+        }
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long userId = currentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (userId != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                AfterCommit.run(() -> readYourWrites.recordWrite(userId));
+            }
+            return PRIMARY;
+        }
+        if (FORCE_PRIMARY.get() != null || (userId != null && readYourWrites.recentlyWrote(userId))) {
+            return PRIMARY;
+        }
+        String replica = replicas.pick();
+        return replica != null ? replica : PRIMARY;
+    }
+    
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getUserId();
+        }
+        return null;
+    }
+}
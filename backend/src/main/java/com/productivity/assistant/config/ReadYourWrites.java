@@ -0,0 +1,40 @@
+package com.productivity.assistant.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers when each user last committed a write, so their reads can stay on the
+ * primary until replicas have had time to catch up.
+ */
+public class ReadYourWrites {
+    
+    private static final int MAX_USERS = 10000;
+    
+    private final long windowMillis;
+    
+    private final ConcurrentHashMap<Long, Long> lastWrites = new ConcurrentHashMap<>();
+    
+    public ReadYourWrites(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+    
+    public void recordWrite(Long userId) {
+        long now = System.currentTimeMillis();
+        if (lastWrites.size() >= MAX_USERS) {
+            lastWrites.values().removeIf(at -> now - at >= windowMillis);
+        }
+        lastWrites.put(userId, now);
+    }
+    
+    public boolean recentlyWrote(Long userId) {
+        Long at = lastWrites.get(userId);
+        if (at == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - at < windowMillis) {
+            return true;
+        }
+        lastWrites.remove(userId, at);
+        return false;
+    }
+}
@@ -0,0 +1,125 @@
+package com.productivity.assistant.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The configured read replicas and whether each is currently close enough to the
+ * primary to serve reads. Lag is polled on a fixed delay; a replica that cannot be
+ * queried or reports no replication status is treated as too far behind, and the
+ * failure is counted in {@code replica.lag.check.failures}.
+ */
+public class ReplicaPool {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReplicaPool.class);
+    
+    private final ReplicaProperties properties;
+    
+    private final List<Replica> replicas = new ArrayList<>();
+    
+    private final AtomicInteger next = new AtomicInteger();
+    
+    public ReplicaPool(ReplicaProperties properties, DataSourceProperties primary, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        for (int i = 0; i < properties.getNodes().size(); i++) {
+            ReplicaProperties.Node node = properties.getNodes().get(i);
+            DataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(primary.determineDriverClassName())
+                    .url(node.getUrl())
+                    .username(node.getUsername() != null ? node.getUsername() : primary.determineUsername())
+                    .password(node.getPassword() != null ? node.getPassword() : primary.determinePassword())
+                    .build();
+            String key = "replica-" + i;
+            Counter lagCheckFailures = Counter.builder("replica.lag.check.failures")
+                    .description("Replica lag checks that failed, leaving the replica out of rotation")
+                    .tag("replica", key)
+                    .register(meterRegistry);
+            replicas.add(new Replica(key, dataSource, lagCheckFailures));
+        }
+        checkLag();
+    }
+    
+    public boolean isEmpty() {
+        return replicas.isEmpty();
+    }
+    
+    public Map<Object, Object> targets() {
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        for (Replica replica : replicas) {
+            targets.put(replica.key, replica.dataSource);
+        }
+        return targets;
+    }
+    
+    /**
+     * Round-robins over the replicas within the lag tolerance, or returns null when
+     * none are.
+     */
+    public String pick() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica.key;
+            }
+        }
+        return null;
+    }
+    
+    @Scheduled(fixedDelayString = "${replicas.lag-check-interval:5000}")
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            replica.healthy = withinTolerance(replica);
+        }
+    }
+    
+    private boolean withinTolerance(Replica replica) {
+        String query = properties.getLagQuery();
+        if (query == null || query.isBlank()) {
+            return true;
+        }
+        try {
+            Long lag = new JdbcTemplate(replica.dataSource).query(query, rs -> {
+                if (!rs.next()) {
+                    return null;
+                }
+                long seconds = rs.getLong(properties.getLagColumn());
+                return rs.wasNull() ? null : seconds;
+            });
+            return lag != null && lag <= properties.getMaxLag().toSeconds();
+        } catch (Exception ex) {
+            log.warn("Replica {} lag check failed: {}", replica.key, ex.getMessage());
+            replica.lagCheckFailures.increment();
+            return false;
+        }
+    }
+    
+    private static class Replica {
+        private final String key;
+        private final DataSource dataSource;
+        private final Counter lagCheckFailures;
+        private volatile boolean healthy;
+        
+        private Replica(String key, DataSource dataSource, Counter lagCheckFailures) {
+            this.key = key;
+            this.dataSource = dataSource;
+            this.lagCheckFailures = lagCheckFailures;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.productivity.assistant.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas for {@code @Transactional(readOnly = true)} work. With no nodes
+ * configured every connection comes from the primary datasource.
+ */
+@Data
+@ConfigurationProperties(prefix = "replicas")
+public class ReplicaProperties {
+    
+    private List<Node> nodes = new ArrayList<>();
+    
+    /** Replicas further behind the primary than this stop receiving reads. */
+    private Duration maxLag = Duration.ofSeconds(2);
+    
+    /** How long a user's reads stay on the primary after one of their writes commits. */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+    
+    private long lagCheckInterval = 5000;
+    
+    /** Query run against each replica to read its lag; blank skips the check. */
+    private String lagQuery = "SHOW REPLICA STATUS";
+    
+    private String lagColumn = "Seconds_Behind_Source";
+    
+    @Data
+    public static class Node {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
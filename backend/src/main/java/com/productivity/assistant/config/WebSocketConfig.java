@@ -1,7 +1,10 @@
 package com.productivity.assistant.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -10,6 +13,12 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
+    @Value("${websocket.inbound.max-concurrency:1000}")
+    private int inboundMaxConcurrency;
+    
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic", "/queue");
@@ -17,6 +26,23 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         config.setUserDestinationPrefix("/user");
     }
     
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        if (!virtualThreads) {
+            return;
+        }
+        
+        // Chat messages block for the whole LLM round trip; on virtual threads the
+        // limit is on concurrent messages rather than on scarce platform threads.
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setVirtualThreads(true);
+        executor.setThreadNamePrefix("stomp-inbound-");
+        executor.setCorePoolSize(inboundMaxConcurrency);
+        executor.setMaxPoolSize(inboundMaxConcurrency);
+        executor.setAllowCoreThreadTimeOut(true);
+        registration.taskExecutor(executor);
+    }
+    
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
@@ -1,20 +1,38 @@
 package com.productivity.assistant.controller;
 
+import com.productivity.assistant.ai.AIExecutor;
 import com.productivity.assistant.ai.AIService;
+import com.productivity.assistant.ai.ChatContext;
+import com.productivity.assistant.ai.ChatContextWindow;
+import com.productivity.assistant.ai.NoteBatchSummarizer;
+import com.productivity.assistant.dto.AiJobDto;
+import com.productivity.assistant.dto.DashboardStats;
 import com.productivity.assistant.dto.NoteDto;
 import com.productivity.assistant.dto.TaskDto;
-import com.productivity.assistant.entity.Task;
+import com.productivity.assistant.dto.TaskFilter;
+import com.productivity.assistant.security.AuthenticatedUser;
+import com.productivity.assistant.service.AiJobService;
 import com.productivity.assistant.service.NoteService;
+import com.productivity.assistant.service.StatsService;
 import com.productivity.assistant.service.TaskService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
@@ -25,114 +43,199 @@ public class AIController {
     @Autowired
     private AIService aiService;
     
+    @Autowired
+    private AIExecutor aiExecutor;
+    
     @Autowired
     private NoteService noteService;
     
     @Autowired
     private TaskService taskService;
     
+    @Autowired
+    private StatsService statsService;
+    
+    @Autowired
+    private AiJobService aiJobService;
+    
+    @Autowired
+    private NoteBatchSummarizer noteBatchSummarizer;
+    
+    @Autowired
+    private ChatContextWindow chatContextWindow;
+    
+    @Value("${ai.stream.idle-timeout:30000}")
+    private long streamIdleTimeout;
+    
     @PostMapping("/summarize")
-    public ResponseEntity<Map<String, String>> summarizeText(@RequestBody Map<String, String> request,
-                                                             Authentication authentication) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> summarizeText(@RequestBody Map<String, String> request,
+                                                                                @AuthenticationPrincipal AuthenticatedUser user) {
         String text = request.get("text");
-        String summary = aiService.summarizeText(text);
-        
-        Map<String, String> response = new HashMap<>();
-        response.put("summary", summary);
-        return ResponseEntity.ok(response);
+        return aiService.summarizeText(text)
+                .thenApply(summary -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("summary", summary);
+                    return ResponseEntity.ok(response);
+                });
+    }
+    
+    @PostMapping(value = "/summarize/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Map<String, String>>> streamSummary(@RequestBody Map<String, String> request,
+                                                                    @AuthenticationPrincipal AuthenticatedUser user) {
+        String text = request.get("text");
+        return toEvents(aiExecutor.stream(() -> aiService.streamSummary(text)));
     }
     
     @PostMapping("/summarize-note/{noteId}")
-    public ResponseEntity<Map<String, String>> summarizeNote(@PathVariable Long noteId,
-                                                             Authentication authentication) {
-        NoteDto note = noteService.getNoteById(noteId, authentication.getName());
-        String summary = aiService.summarizeText(note.getContent());
+    public CompletableFuture<ResponseEntity<Map<String, String>>> summarizeNote(@PathVariable Long noteId,
+                                                                                @RequestParam(defaultValue = "false") boolean async,
+                                                                                @AuthenticationPrincipal AuthenticatedUser user) {
+        Optional<String> current = noteService.getCurrentSummary(noteId, user.getUserId());
+        if (current.isPresent()) {
+            Map<String, String> response = new HashMap<>();
+            response.put("summary", current.get());
+            return CompletableFuture.completedFuture(ResponseEntity.ok(response));
+        }
+        
+        if (async) {
+            AiJobDto job = aiJobService.submitSummarizeNote(noteId, user.getUserId());
+            
+            Map<String, String> response = new HashMap<>();
+            response.put("jobId", String.valueOf(job.getId()));
+            response.put("status", job.getStatus().name());
+            return CompletableFuture.completedFuture(ResponseEntity.accepted().body(response));
+        }
+        
+        // The timeout covers the model call only; the write runs after it has completed.
+        NoteDto note = noteService.getNoteById(noteId, user.getUserId());
+        return aiService.summarizeText(note.getContent())
+                .thenApply(summary -> {
+                    note.setAiSummary(summary);
+                    noteService.updateSummary(noteId, note, user.getUserId());
+                    
+                    Map<String, String> response = new HashMap<>();
+                    response.put("summary", summary);
+                    return ResponseEntity.ok(response);
+                });
+    }
+    
+    @PostMapping("/summarize-notes")
+    public Callable<ResponseEntity<Object>> summarizeNotes(@RequestBody Map<String, List<Long>> request,
+                                                           @RequestParam(defaultValue = "false") boolean async,
+                                                           @AuthenticationPrincipal AuthenticatedUser user) {
+        List<Long> noteIds = request.getOrDefault("noteIds", List.of());
         
-        note.setAiSummary(summary);
-        noteService.updateNote(noteId, note, authentication.getName());
+        if (async) {
+            AiJobDto job = aiJobService.submitSummarizeNotes(noteIds, user.getUserId());
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("jobId", job.getId());
+            response.put("status", job.getStatus());
+            return () -> ResponseEntity.accepted().<Object>body(response);
+        }
         
-        Map<String, String> response = new HashMap<>();
-        response.put("summary", summary);
-        return ResponseEntity.ok(response);
+        // Runs on the MVC async executor; the summarizer hands each model call to the
+        // AI pool and writes the summaries itself, outside any timeout.
+        Long userId = user.getUserId();
+        return () -> ResponseEntity.<Object>ok(noteBatchSummarizer.summarize(noteIds, userId));
     }
     
     @PostMapping("/generate-tasks")
-    public ResponseEntity<Map<String, Object>> generateTasks(@RequestBody Map<String, String> request,
-                                                             Authentication authentication) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> generateTasks(@RequestBody Map<String, String> request,
+                                                                                @RequestParam(defaultValue = "false") boolean async,
+                                                                                @AuthenticationPrincipal AuthenticatedUser user) {
         String text = request.get("text");
         boolean autoCreate = Boolean.parseBoolean(request.getOrDefault("autoCreate", "false"));
         
-        List<String> taskTitles = aiService.generateTasksFromText(text);
-        
-        if (autoCreate) {
-            for (String title : taskTitles) {
-                TaskDto taskDto = new TaskDto();
-                taskDto.setTitle(title);
-                taskDto.setStatus(Task.TaskStatus.PENDING);
-                taskDto.setPriority(Task.TaskPriority.MEDIUM);
-                taskDto.setAiGenerated(true);
-                taskService.createTask(taskDto, authentication.getName());
-            }
+        if (async) {
+            AiJobDto job = aiJobService.submitGenerateTasks(text, autoCreate, user.getUserId());
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("jobId", job.getId());
+            response.put("status", job.getStatus());
+            return CompletableFuture.completedFuture(ResponseEntity.accepted().body(response));
         }
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("tasks", taskTitles);
-        response.put("created", autoCreate);
-        return ResponseEntity.ok(response);
+        return aiService.generateTasksFromText(text)
+                .thenApply(taskTitles -> {
+                    if (autoCreate) {
+                        taskService.createAiTasks(taskTitles, user.getUserId());
+                    }
+                    
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("tasks", taskTitles);
+                    response.put("created", autoCreate);
+                    return ResponseEntity.ok(response);
+                });
+    }
+    
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<AiJobDto> getJob(@PathVariable Long jobId,
+                                           @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(aiJobService.getJob(jobId, user.getUserId()));
     }
     
     @GetMapping("/daily-summary")
-    public ResponseEntity<Map<String, String>> getDailySummary(Authentication authentication) {
-        List<TaskDto> allTasks = taskService.getUserTasks(authentication.getName(), null, null);
-        List<NoteDto> allNotes = noteService.getUserNotes(authentication.getName(), false);
-        
-        LocalDateTime todayStart = LocalDateTime.now().toLocalDate().atStartOfDay();
-        
-        long completedToday = allTasks.stream()
-                .filter(t -> t.getStatus() == Task.TaskStatus.COMPLETED)
-                .filter(t -> t.getCompletedAt() != null && t.getCompletedAt().isAfter(todayStart))
-                .count();
-        
-        long pendingTasks = allTasks.stream()
-                .filter(t -> t.getStatus() == Task.TaskStatus.PENDING || 
-                           t.getStatus() == Task.TaskStatus.IN_PROGRESS)
-                .count();
-        
-        long notesCreatedToday = allNotes.stream()
-                .filter(n -> n.getCreatedAt() != null && n.getCreatedAt().isAfter(todayStart))
-                .count();
+    public CompletableFuture<ResponseEntity<Map<String, String>>> getDailySummary(@AuthenticationPrincipal AuthenticatedUser user) {
+        DashboardStats stats = statsService.getStats(user.getUserId());
+        long completedToday = stats.getCompletedToday();
+        long pendingTasks = stats.getPendingTasks();
+        long notesCreatedToday = stats.getNotesCreatedToday();
         
         Map<String, Object> userData = new HashMap<>();
         userData.put("completedTasks", (int) completedToday);
         userData.put("pendingTasks", (int) pendingTasks);
         userData.put("notesCreated", (int) notesCreatedToday);
         
-        String summary = aiService.generateDailySummary(userData);
-        
-        Map<String, String> response = new HashMap<>();
-        response.put("summary", summary);
-        response.put("stats", String.format("Tasks: %d completed, %d pending | Notes: %d created today", 
-                                           completedToday, pendingTasks, notesCreatedToday));
-        return ResponseEntity.ok(response);
+        return aiExecutor.submit(() -> aiService.generateDailySummary(userData))
+                .thenApply(summary -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("summary", summary);
+                    response.put("stats", String.format("Tasks: %d completed, %d pending | Notes: %d created today", 
+                                                       completedToday, pendingTasks, notesCreatedToday));
+                    return ResponseEntity.ok(response);
+                });
     }
     
     @PostMapping("/chat")
-    public ResponseEntity<Map<String, String>> chatWithAssistant(@RequestBody Map<String, Object> request,
-                                                                 Authentication authentication) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> chatWithAssistant(@RequestBody Map<String, Object> request,
+                                                                                    @AuthenticationPrincipal AuthenticatedUser user) {
+        // History comes from the server-side conversation; any client-sent "history" is ignored.
         String message = (String) request.get("message");
-        List<String> history = (List<String>) request.getOrDefault("history", List.of());
         
-        String response = aiService.chatWithAssistant(message, history);
+        ChatContext context = chatContextWindow.begin(user.getUsername(), message);
+        return aiExecutor.submit(() -> aiService.chatWithAssistant(message, context))
+                .thenApply(response -> {
+                    chatContextWindow.record(user.getUsername(), message, response);
+                    
+                    Map<String, String> result = new HashMap<>();
+                    result.put("response", response);
+                    return ResponseEntity.ok(result);
+                });
+    }
+    
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Map<String, String>>> streamChat(@RequestBody Map<String, Object> request,
+                                                                 @AuthenticationPrincipal AuthenticatedUser user) {
+        String message = (String) request.get("message");
         
-        Map<String, String> result = new HashMap<>();
-        result.put("response", response);
-        return ResponseEntity.ok(result);
+        ChatContext context = chatContextWindow.begin(user.getUsername(), message);
+        StringBuilder reply = new StringBuilder();
+        return toEvents(aiExecutor.stream(() -> aiService.streamChat(message, context))
+                .doOnNext(reply::append)
+                .doOnComplete(() -> chatContextWindow.record(user.getUsername(), message, reply.toString())));
+    }
+    
+    @DeleteMapping("/chat/history")
+    public ResponseEntity<Void> clearChatHistory(@AuthenticationPrincipal AuthenticatedUser user) {
+        chatContextWindow.clear(user.getUsername());
+        return ResponseEntity.noContent().build();
     }
     
     @GetMapping("/insights")
-    public ResponseEntity<Map<String, String>> getInsights(Authentication authentication) {
-        List<NoteDto> notes = noteService.getUserNotes(authentication.getName(), false);
-        List<TaskDto> tasks = taskService.getUserTasks(authentication.getName(), null, null);
+    public CompletableFuture<ResponseEntity<Map<String, String>>> getInsights(@AuthenticationPrincipal AuthenticatedUser user) {
+        List<NoteDto> notes = noteService.getUserNotes(user.getUserId(), false);
+        List<TaskDto> tasks = taskService.getUserTasks(user.getUserId(), new TaskFilter(), false);
         
         String noteContent = notes.stream()
                 .limit(5)
@@ -145,10 +248,33 @@ public class AIController {
                 .map(t -> t.getTitle() + " (" + t.getStatus() + ", " + t.getPriority() + ")")
                 .collect(Collectors.joining("\n"));
         
-        String insights = aiService.generateInsights(noteContent, taskList);
-        
-        Map<String, String> response = new HashMap<>();
-        response.put("insights", insights);
-        return ResponseEntity.ok(response);
+        return aiExecutor.submit(() -> aiService.generateInsights(noteContent, taskList))
+                .thenApply(insights -> {
+                    Map<String, String> response = new HashMap<>();
+                    response.put("insights", insights);
+                    return ResponseEntity.ok(response);
+                });
+    }
+    
+    /**
+     * Frames model output as SSE: a {@code token} event per fragment, then {@code done},
+     * or {@code error} if the upstream fails, goes quiet for longer than the idle timeout,
+     * or is turned away because the AI pool is full.
+     * Fragments are JSON-wrapped because SSE framing would strip their leading spaces.
+     */
+    private Flux<ServerSentEvent<Map<String, String>>> toEvents(Flux<String> fragments) {
+        return fragments
+                .timeout(Duration.ofMillis(streamIdleTimeout))
+                .map(fragment -> ServerSentEvent.builder(Map.of("content", fragment)).event("token").build())
+                .concatWith(Mono.just(ServerSentEvent.builder(Map.<String, String>of()).event("done").build()))
+                .onErrorResume(ex -> Mono.just(ServerSentEvent.builder(Map.of("message", errorMessage(ex)))
+                        .event("error")
+                        .build()));
+    }
+    
+    private static String errorMessage(Throwable ex) {
+        return ex instanceof ResponseStatusException status && status.getReason() != null
+                ? status.getReason()
+                : "AI request failed";
     }
 }
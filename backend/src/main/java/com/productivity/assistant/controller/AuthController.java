@@ -6,6 +6,7 @@ import com.productivity.assistant.dto.RegisterRequest;
 import com.productivity.assistant.entity.User;
 import com.productivity.assistant.repository.UserRepository;
 import com.productivity.assistant.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -17,6 +18,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
@@ -72,7 +75,7 @@ public class AuthController {
         
         User savedUser = userRepository.save(user);
         
-        String jwt = tokenProvider.generateTokenFromUsername(savedUser.getUsername());
+        String jwt = tokenProvider.generateToken(savedUser.getId(), savedUser.getUsername());
         
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(new AuthResponse(jwt, savedUser.getId(), savedUser.getUsername(), savedUser.getEmail()));
@@ -82,8 +85,9 @@ public class AuthController {
     public ResponseEntity<?> validateToken(@RequestHeader("Authorization") String token) {
         if (token != null && token.startsWith("Bearer ")) {
             String jwt = token.substring(7);
-            if (tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
+            Optional<Claims> claims = tokenProvider.verify(jwt);
+            if (claims.isPresent()) {
+                String username = claims.get().getSubject();
                 User user = userRepository.findByUsername(username)
                         .orElseThrow(() -> new RuntimeException("User not found"));
                 return ResponseEntity.ok(new AuthResponse(jwt, user.getId(), user.getUsername(), user.getEmail()));
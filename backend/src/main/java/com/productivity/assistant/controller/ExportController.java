@@ -0,0 +1,54 @@
+package com.productivity.assistant.controller;
+
+import com.productivity.assistant.security.AuthenticatedUser;
+import com.productivity.assistant.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/export")
+@CrossOrigin(origins = "http://localhost:5173")
+public class ExportController {
+    
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    
+    @Autowired
+    private ExportService exportService;
+    
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format,
+                                                        @RequestParam(defaultValue = "all") String type,
+                                                        @AuthenticationPrincipal AuthenticatedUser user) {
+        ExportService.Format exportFormat = parse(ExportService.Format.class, format);
+        ExportService.Scope scope = parse(ExportService.Scope.class, type);
+        if (exportFormat == ExportService.Format.CSV && scope == ExportService.Scope.ALL) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV export needs type=tasks or type=notes");
+        }
+        
+        Long userId = user.getUserId();
+        StreamingResponseBody body = out -> exportService.export(userId, exportFormat, scope, out);
+        
+        String filename = "export-" + scope.name().toLowerCase(Locale.ROOT) + "." + exportFormat.name().toLowerCase(Locale.ROOT);
+        return ResponseEntity.ok()
+                .contentType(exportFormat == ExportService.Format.CSV ? new MediaType("text", "csv") : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+    
+    private static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported value: " + value);
+        }
+    }
+}
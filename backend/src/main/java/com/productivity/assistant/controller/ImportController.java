@@ -0,0 +1,75 @@
+package com.productivity.assistant.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.productivity.assistant.dto.ImportEvent;
+import com.productivity.assistant.dto.ImportResult;
+import com.productivity.assistant.security.AuthenticatedUser;
+import com.productivity.assistant.service.ImportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/api/import")
+@CrossOrigin(origins = "http://localhost:5173")
+public class ImportController {
+    
+    @Autowired
+    private ImportService importService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @PostMapping(consumes = {"application/x-ndjson", "text/plain", "application/octet-stream"})
+    public ResponseEntity<ImportResult> importNdjson(InputStream body,
+                                                     @AuthenticationPrincipal AuthenticatedUser user) throws IOException {
+        ImportResult result = importService.importNdjson(body, user.getUserId());
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * With {@code ?progress=true} the response is NDJSON written while the upload is
+     * processed: a {@code progress} line after each batch, then a {@code result} line
+     * with the same body the plain endpoint returns.
+     */
+    @PostMapping(consumes = {"application/x-ndjson", "text/plain", "application/octet-stream"},
+                 params = "progress=true")
+    public void importNdjsonWithProgress(InputStream body,
+                                         @AuthenticationPrincipal AuthenticatedUser user,
+                                         HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        Writer writer = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+        ObjectWriter json = objectMapper.writer();
+        
+        ImportResult result;
+        try {
+            result = importService.importNdjson(body, user.getUserId(), progress -> {
+                try {
+                    writeLine(writer, json, new ImportEvent(ImportEvent.PROGRESS, progress));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        writeLine(writer, json, new ImportEvent(ImportEvent.RESULT, result));
+    }
+    
+    private static void writeLine(Writer writer, ObjectWriter json, ImportEvent event) throws IOException {
+        writer.write(json.writeValueAsString(event));
+        writer.write('\n');
+        writer.flush();
+    }
+}
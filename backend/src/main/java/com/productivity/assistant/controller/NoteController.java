@@ -1,13 +1,24 @@
 package com.productivity.assistant.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.productivity.assistant.dto.BatchRequest;
+import com.productivity.assistant.dto.BatchResult;
+import com.productivity.assistant.dto.CursorPage;
 import com.productivity.assistant.dto.NoteDto;
+import com.productivity.assistant.security.AuthenticatedUser;
+import com.productivity.assistant.service.CollectionVersionService;
+import com.productivity.assistant.service.JsonMergePatch;
 import com.productivity.assistant.service.NoteService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -16,49 +27,93 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:5173")
 public class NoteController {
     
+    // Cap for an explicit search limit; without one every match is returned.
+    private static final int MAX_SEARCH_RESULTS = 100;
+    
+    private static final String SUMMARY_FIELDS = "summary";
+    
+    // Clients may keep listings but must revalidate them with If-None-Match.
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    
     @Autowired
     private NoteService noteService;
     
+    @Autowired
+    private CollectionVersionService collectionVersions;
+    
     @PostMapping
     public ResponseEntity<NoteDto> createNote(@Valid @RequestBody NoteDto noteDto, 
-                                               Authentication authentication) {
-        NoteDto createdNote = noteService.createNote(noteDto, authentication.getName());
+                                               @AuthenticationPrincipal AuthenticatedUser user) {
+        NoteDto createdNote = noteService.createNote(noteDto, user.getUserId());
         return ResponseEntity.status(HttpStatus.CREATED).body(createdNote);
     }
     
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResult<NoteDto>> applyNoteBatch(@Valid @RequestBody BatchRequest<NoteDto> batch,
+                                                               @AuthenticationPrincipal AuthenticatedUser user) {
+        BatchResult<NoteDto> result = noteService.applyBatch(batch, user.getUserId());
+        return ResponseEntity.ok(result);
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<NoteDto> updateNote(@PathVariable Long id,
                                                @Valid @RequestBody NoteDto noteDto,
-                                               Authentication authentication) {
-        NoteDto updatedNote = noteService.updateNote(id, noteDto, authentication.getName());
+                                               @AuthenticationPrincipal AuthenticatedUser user) {
+        NoteDto updatedNote = noteService.updateNote(id, noteDto, user.getUserId());
         return ResponseEntity.ok(updatedNote);
     }
     
+    @PatchMapping(value = "/{id}", consumes = {JsonMergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<NoteDto> patchNote(@PathVariable Long id,
+                                             @RequestBody JsonNode patch,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @AuthenticationPrincipal AuthenticatedUser user) {
+        NoteDto patchedNote = noteService.patchNote(id, patch, JsonMergePatch.parseIfMatch(ifMatch), user.getUserId());
+        return ResponseEntity.ok().eTag(JsonMergePatch.etag(patchedNote.getVersion())).body(patchedNote);
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteNote(@PathVariable Long id,
-                                           Authentication authentication) {
-        noteService.deleteNote(id, authentication.getName());
+                                           @AuthenticationPrincipal AuthenticatedUser user) {
+        noteService.deleteNote(id, user.getUserId());
         return ResponseEntity.noContent().build();
     }
     
     @GetMapping("/{id}")
     public ResponseEntity<NoteDto> getNoteById(@PathVariable Long id,
-                                               Authentication authentication) {
-        NoteDto note = noteService.getNoteById(id, authentication.getName());
-        return ResponseEntity.ok(note);
+                                               @AuthenticationPrincipal AuthenticatedUser user) {
+        NoteDto note = noteService.getNoteById(id, user.getUserId());
+        return ResponseEntity.ok().eTag(JsonMergePatch.etag(note.getVersion())).body(note);
     }
     
     @GetMapping
-    public ResponseEntity<List<NoteDto>> getUserNotes(@RequestParam(required = false) Boolean archived,
-                                                      Authentication authentication) {
-        List<NoteDto> notes = noteService.getUserNotes(authentication.getName(), archived);
-        return ResponseEntity.ok(notes);
+    public ResponseEntity<?> getUserNotes(@RequestParam(required = false) Boolean archived,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit,
+                                          @RequestParam(required = false) String fields,
+                                          @AuthenticationPrincipal AuthenticatedUser user,
+                                          WebRequest request) {
+        String etag = collectionVersions.etag(CollectionVersionService.NOTES, user.getUserId(), request.getParameterMap());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        
+        boolean includeText = !SUMMARY_FIELDS.equalsIgnoreCase(fields);
+        if (cursor != null || limit != null) {
+            CursorPage<NoteDto> page = noteService.getUserNotesPage(user.getUserId(), archived, cursor, limit, includeText);
+            return ResponseEntity.ok().cacheControl(REVALIDATE).body(page);
+        }
+        
+        List<NoteDto> notes = noteService.getUserNotes(user.getUserId(), archived, includeText);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(notes);
     }
     
     @GetMapping("/search")
     public ResponseEntity<List<NoteDto>> searchNotes(@RequestParam String q,
-                                                     Authentication authentication) {
-        List<NoteDto> notes = noteService.searchNotes(authentication.getName(), q);
+                                                     @RequestParam(required = false) Integer limit,
+                                                     @AuthenticationPrincipal AuthenticatedUser user) {
+        List<NoteDto> notes = noteService.searchNotes(user.getUserId(), q,
+                limit != null ? Math.min(limit, MAX_SEARCH_RESULTS) : Integer.MAX_VALUE);
         return ResponseEntity.ok(notes);
     }
 }
@@ -0,0 +1,23 @@
+package com.productivity.assistant.controller;
+
+import com.productivity.assistant.dto.DashboardStats;
+import com.productivity.assistant.security.AuthenticatedUser;
+import com.productivity.assistant.service.StatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/stats")
+@CrossOrigin(origins = "http://localhost:5173")
+public class StatsController {
+    
+    @Autowired
+    private StatsService statsService;
+    
+    @GetMapping
+    public ResponseEntity<DashboardStats> getStats(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(statsService.getStats(user.getUserId()));
+    }
+}
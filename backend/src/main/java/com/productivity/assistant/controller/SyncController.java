@@ -0,0 +1,24 @@
+package com.productivity.assistant.controller;
+
+import com.productivity.assistant.dto.SyncResponse;
+import com.productivity.assistant.security.AuthenticatedUser;
+import com.productivity.assistant.service.SyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/sync")
+@CrossOrigin(origins = "http://localhost:5173")
+public class SyncController {
+    
+    @Autowired
+    private SyncService syncService;
+    
+    @GetMapping
+    public ResponseEntity<SyncResponse> sync(@RequestParam(required = false) String since,
+                                             @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(syncService.changesSince(user.getUserId(), since));
+    }
+}
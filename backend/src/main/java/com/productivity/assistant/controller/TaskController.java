@@ -1,14 +1,25 @@
 package com.productivity.assistant.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.productivity.assistant.dto.BatchRequest;
+import com.productivity.assistant.dto.BatchResult;
+import com.productivity.assistant.dto.CursorPage;
 import com.productivity.assistant.dto.TaskDto;
-import com.productivity.assistant.entity.Task;
+import com.productivity.assistant.dto.TaskFilter;
+import com.productivity.assistant.security.AuthenticatedUser;
+import com.productivity.assistant.service.CollectionVersionService;
+import com.productivity.assistant.service.JsonMergePatch;
 import com.productivity.assistant.service.TaskService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -17,56 +28,99 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:5173")
 public class TaskController {
     
+    // Cap for an explicit search limit; without one every match is returned.
+    private static final int MAX_SEARCH_RESULTS = 100;
+    
+    private static final String SUMMARY_FIELDS = "summary";
+    
+    // Clients may keep listings but must revalidate them with If-None-Match.
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    
     @Autowired
     private TaskService taskService;
     
+    @Autowired
+    private CollectionVersionService collectionVersions;
+    
     @PostMapping
     public ResponseEntity<TaskDto> createTask(@Valid @RequestBody TaskDto taskDto, 
-                                               Authentication authentication) {
-        TaskDto createdTask = taskService.createTask(taskDto, authentication.getName());
+                                               @AuthenticationPrincipal AuthenticatedUser user) {
+        TaskDto createdTask = taskService.createTask(taskDto, user.getUserId());
         return ResponseEntity.status(HttpStatus.CREATED).body(createdTask);
     }
     
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResult<TaskDto>> applyTaskBatch(@Valid @RequestBody BatchRequest<TaskDto> batch,
+                                                               @AuthenticationPrincipal AuthenticatedUser user) {
+        BatchResult<TaskDto> result = taskService.applyBatch(batch, user.getUserId());
+        return ResponseEntity.ok(result);
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<TaskDto> updateTask(@PathVariable Long id,
                                                @Valid @RequestBody TaskDto taskDto,
-                                               Authentication authentication) {
-        TaskDto updatedTask = taskService.updateTask(id, taskDto, authentication.getName());
+                                               @AuthenticationPrincipal AuthenticatedUser user) {
+        TaskDto updatedTask = taskService.updateTask(id, taskDto, user.getUserId());
         return ResponseEntity.ok(updatedTask);
     }
     
+    @PatchMapping(value = "/{id}", consumes = {JsonMergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<TaskDto> patchTask(@PathVariable Long id,
+                                             @RequestBody JsonNode patch,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @AuthenticationPrincipal AuthenticatedUser user) {
+        TaskDto patchedTask = taskService.patchTask(id, patch, JsonMergePatch.parseIfMatch(ifMatch), user.getUserId());
+        return ResponseEntity.ok().eTag(JsonMergePatch.etag(patchedTask.getVersion())).body(patchedTask);
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTask(@PathVariable Long id,
-                                           Authentication authentication) {
-        taskService.deleteTask(id, authentication.getName());
+                                           @AuthenticationPrincipal AuthenticatedUser user) {
+        taskService.deleteTask(id, user.getUserId());
         return ResponseEntity.noContent().build();
     }
     
     @GetMapping("/{id}")
     public ResponseEntity<TaskDto> getTaskById(@PathVariable Long id,
-                                               Authentication authentication) {
-        TaskDto task = taskService.getTaskById(id, authentication.getName());
-        return ResponseEntity.ok(task);
+                                               @AuthenticationPrincipal AuthenticatedUser user) {
+        TaskDto task = taskService.getTaskById(id, user.getUserId());
+        return ResponseEntity.ok().eTag(JsonMergePatch.etag(task.getVersion())).body(task);
     }
     
     @GetMapping
-    public ResponseEntity<List<TaskDto>> getUserTasks(@RequestParam(required = false) Task.TaskStatus status,
-                                                      @RequestParam(required = false) Task.TaskPriority priority,
-                                                      Authentication authentication) {
-        List<TaskDto> tasks = taskService.getUserTasks(authentication.getName(), status, priority);
-        return ResponseEntity.ok(tasks);
+    public ResponseEntity<?> getUserTasks(TaskFilter filter,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit,
+                                          @RequestParam(required = false) String fields,
+                                          @AuthenticationPrincipal AuthenticatedUser user,
+                                          WebRequest request) {
+        String etag = collectionVersions.etag(CollectionVersionService.TASKS, user.getUserId(), request.getParameterMap());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        
+        boolean includeText = !SUMMARY_FIELDS.equalsIgnoreCase(fields);
+        if (cursor != null || limit != null) {
+            CursorPage<TaskDto> page = taskService.getUserTasksPage(user.getUserId(), filter, cursor, limit, includeText);
+            return ResponseEntity.ok().cacheControl(REVALIDATE).body(page);
+        }
+        
+        List<TaskDto> tasks = taskService.getUserTasks(user.getUserId(), filter, includeText);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(tasks);
     }
     
     @GetMapping("/search")
     public ResponseEntity<List<TaskDto>> searchTasks(@RequestParam String q,
-                                                     Authentication authentication) {
-        List<TaskDto> tasks = taskService.searchTasks(authentication.getName(), q);
+                                                     @RequestParam(required = false) Integer limit,
+                                                     @AuthenticationPrincipal AuthenticatedUser user) {
+        List<TaskDto> tasks = taskService.searchTasks(user.getUserId(), q,
+                limit != null ? Math.min(limit, MAX_SEARCH_RESULTS) : Integer.MAX_VALUE);
         return ResponseEntity.ok(tasks);
     }
     
     @GetMapping("/overdue")
-    public ResponseEntity<List<TaskDto>> getOverdueTasks(Authentication authentication) {
-        List<TaskDto> tasks = taskService.getOverdueTasks(authentication.getName());
+    public ResponseEntity<List<TaskDto>> getOverdueTasks(@AuthenticationPrincipal AuthenticatedUser user) {
+        List<TaskDto> tasks = taskService.getOverdueTasks(user.getUserId());
         return ResponseEntity.ok(tasks);
     }
 }
@@ -0,0 +1,28 @@
+package com.productivity.assistant.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.productivity.assistant.entity.AiJob;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class AiJobDto {
+    private Long id;
+    private AiJob.JobType type;
+    private AiJob.JobStatus status;
+    private Long noteId;
+    private int attempts;
+    
+    /**
+     * JSON body the synchronous endpoint would have returned, once the job succeeds.
+     */
+    @JsonRawValue
+    private String result;
+    
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,4 @@
+package com.productivity.assistant.dto;
+
+public record ArchivedNoteText(Long noteId, String content, String aiSummary) {
+}
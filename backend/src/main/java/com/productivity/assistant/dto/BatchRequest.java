@@ -0,0 +1,26 @@
+package com.productivity.assistant.dto;
+
+import jakarta.validation.Valid;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BatchRequest<T> {
+    @Valid
+    private List<T> create = new ArrayList<>();
+    
+    @Valid
+    private List<T> update = new ArrayList<>();
+    
+    private List<Long> delete = new ArrayList<>();
+    
+    public int size() {
+        return sizeOf(create) + sizeOf(update) + sizeOf(delete);
+    }
+    
+    private static int sizeOf(List<?> operations) {
+        return operations != null ? operations.size() : 0;
+    }
+}
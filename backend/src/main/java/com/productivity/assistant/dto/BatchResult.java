@@ -0,0 +1,16 @@
+package com.productivity.assistant.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BatchResult<T> {
+    private List<T> created;
+    private List<T> updated;
+    private int deleted;
+    private List<Long> notFound;
+    private List<Long> conflicts;
+}
@@ -0,0 +1,21 @@
+package com.productivity.assistant.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSummaryResult {
+    /** Summary per note id, including notes whose stored summary was still current. */
+    private Map<Long, String> summaries;
+    private int summarized;
+    private int modelCalls;
+    /** Notes edited while being summarized; their new summary was not saved. */
+    private List<Long> conflicts;
+    private long elapsedMs;
+}
@@ -0,0 +1,32 @@
+package com.productivity.assistant.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String next;
+    
+    /**
+     * Builds a page from rows fetched with {@code pageSize + 1} as the limit; the extra
+     * row only signals that another page exists and is not returned.
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows, int pageSize,
+                                          Function<E, T> mapper,
+                                          Function<E, KeysetCursor> cursorOf) {
+        boolean hasMore = rows.size() > pageSize;
+        List<E> page = hasMore ? rows.subList(0, pageSize) : rows;
+        
+        String next = hasMore ? cursorOf.apply(page.get(page.size() - 1)).encode() : null;
+        List<T> items = page.stream()
+                .map(mapper)
+                .collect(Collectors.toList());
+        return new CursorPage<>(items, next);
+    }
+}
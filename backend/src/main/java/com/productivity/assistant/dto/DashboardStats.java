@@ -0,0 +1,18 @@
+package com.productivity.assistant.dto;
+
+import com.productivity.assistant.entity.Task;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardStats {
+    private Map<Task.TaskStatus, Long> tasksByStatus;
+    private long pendingTasks;
+    private long completedToday;
+    private long notesCreatedToday;
+}
@@ -0,0 +1,19 @@
+package com.productivity.assistant.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of an NDJSON export: the item kind and the task or note DTO.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportRecord {
+    public static final String TASK = "task";
+    public static final String NOTE = "note";
+    
+    private String type;
+    private Object data;
+}
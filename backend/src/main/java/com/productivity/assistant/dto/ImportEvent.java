@@ -0,0 +1,20 @@
+package com.productivity.assistant.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a streamed import response: an {@link ImportProgress} per batch, then
+ * the final {@link ImportResult}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportEvent {
+    public static final String PROGRESS = "progress";
+    public static final String RESULT = "result";
+    
+    private String type;
+    private Object data;
+}
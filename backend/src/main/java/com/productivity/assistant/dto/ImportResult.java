@@ -0,0 +1,23 @@
+package com.productivity.assistant.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ImportResult {
+    private long lines;
+    private long imported;
+    private long failed;
+    private boolean errorsTruncated;
+    private List<LineError> errors = new ArrayList<>();
+    
+    @Data
+    @AllArgsConstructor
+    public static class LineError {
+        private long line;
+        private String message;
+    }
+}
@@ -1,11 +1,16 @@
 package com.productivity.assistant.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class NoteDto {
     private Long id;
     
@@ -18,4 +23,22 @@ public class NoteDto {
     private boolean archived;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
+    
+    // Text is in the cold tier and still has to be filled in; internal only.
+    @JsonIgnore
+    private boolean textFrozen;
+    
+    public NoteDto(Long id, String title, String content, String aiSummary, String category, boolean archived,
+                   LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
+        this(id, title, content, aiSummary, category, archived, createdAt, updatedAt, version, false);
+    }
+    
+    /**
+     * Projection constructor for list views that leave out the TEXT columns.
+     */
+    public NoteDto(Long id, String title, String category, boolean archived,
+                   LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
+        this(id, title, null, null, category, archived, createdAt, updatedAt, version, false);
+    }
 }
@@ -0,0 +1,51 @@
+package com.productivity.assistant.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Where a client's last sync stopped in each of the three change streams, each
+ * ordered by {@code (syncSeq, id)}, plus when the client was last fully caught up,
+ * which decides whether the tombstones it still needs may have been compacted.
+ * Clients only see the encoded form.
+ */
+public record SyncCursor(Position tasks, Position notes, Position deletions, LocalDateTime caughtUpAt) {
+    
+    public record Position(long seq, long id) {
+    }
+    
+    public String encode() {
+        String raw = tasks.seq() + "|" + tasks.id() + "|" + notes.seq() + "|" + notes.id() + "|"
+                + deletions.seq() + "|" + deletions.id() + "|" + caughtUpAt;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static SyncCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+        } catch (RuntimeException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        if (parts.length == 6) {
+            // Timestamp cursors from before the sync sequence cannot be mapped onto it.
+            throw new ResponseStatusException(HttpStatus.GONE, "Sync cursor expired, run a full sync");
+        }
+        try {
+            return new SyncCursor(
+                    new Position(Long.parseLong(parts[0]), Long.parseLong(parts[1])),
+                    new Position(Long.parseLong(parts[2]), Long.parseLong(parts[3])),
+                    new Position(Long.parseLong(parts[4]), Long.parseLong(parts[5])),
+                    LocalDateTime.parse(parts[6]));
+        } catch (RuntimeException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
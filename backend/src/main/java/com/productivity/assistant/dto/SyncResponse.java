@@ -0,0 +1,19 @@
+package com.productivity.assistant.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponse {
+    private List<TaskDto> tasks;
+    private List<NoteDto> notes;
+    private List<Long> deletedTaskIds;
+    private List<Long> deletedNoteIds;
+    private String cursor;
+    private boolean hasMore;
+}
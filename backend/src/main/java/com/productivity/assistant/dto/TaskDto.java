@@ -2,11 +2,15 @@ package com.productivity.assistant.dto;
 
 import com.productivity.assistant.entity.Task;
 import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class TaskDto {
     private Long id;
     
@@ -23,4 +27,15 @@ public class TaskDto {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime completedAt;
+    private Long version;
+    
+    /**
+     * Projection constructor for list views that leave out the TEXT columns.
+     */
+    public TaskDto(Long id, String title, Task.TaskStatus status, Task.TaskPriority priority,
+                   LocalDateTime dueDate, boolean aiGenerated, Long relatedNoteId,
+                   LocalDateTime createdAt, LocalDateTime updatedAt, LocalDateTime completedAt, Long version) {
+        this(id, title, null, status, priority, dueDate, aiGenerated, null, relatedNoteId,
+             createdAt, updatedAt, completedAt, version);
+    }
 }
@@ -0,0 +1,31 @@
+package com.productivity.assistant.dto;
+
+import com.productivity.assistant.entity.Task;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+@Data
+public class TaskFilter {
+    private Set<Task.TaskStatus> status;
+    private Set<Task.TaskPriority> priority;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime dueFrom;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime dueTo;
+    
+    private Boolean aiGenerated;
+    private Long relatedNoteId;
+    
+    public boolean hasStatus() {
+        return status != null && !status.isEmpty();
+    }
+    
+    public boolean hasPriority() {
+        return priority != null && !priority.isEmpty();
+    }
+}
@@ -0,0 +1,15 @@
+package com.productivity.assistant.dto;
+
+import com.productivity.assistant.entity.Task;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskStatusCount {
+    private Task.TaskStatus status;
+    private Long total;
+    private Long completedSince;
+}
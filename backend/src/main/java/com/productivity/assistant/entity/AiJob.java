@@ -0,0 +1,72 @@
+package com.productivity.assistant.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A queued AI request. Workers claim pending jobs whose next attempt is due, store
+ * the JSON result on success, and reschedule with backoff on failure until the
+ * attempt limit is reached.
+ */
+@Entity
+@Table(name = "ai_jobs", indexes = {
+        @Index(name = "idx_ai_jobs_status_next", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_ai_jobs_completed", columnList = "completed_at")
+})
+@Data
+@NoArgsConstructor
+public class AiJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ai_job_seq")
+    @SequenceGenerator(name = "ai_job_seq", sequenceName = "ai_job_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobStatus status = JobStatus.PENDING;
+
+    private Long noteId;
+
+    // Text for GENERATE_TASKS, comma-separated note ids for SUMMARIZE_NOTES.
+    @Column(columnDefinition = "LONGTEXT")
+    private String inputText;
+
+    private boolean autoCreate;
+
+    @Column(columnDefinition = "LONGTEXT")
+    private String result;
+
+    @Column(length = 1000)
+    private String error;
+
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime startedAt;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    private LocalDateTime completedAt;
+
+    public enum JobType {
+        SUMMARIZE_NOTE, SUMMARIZE_NOTES, GENERATE_TASKS
+    }
+
+    public enum JobStatus {
+        PENDING, RUNNING, SUCCEEDED, FAILED
+    }
+}
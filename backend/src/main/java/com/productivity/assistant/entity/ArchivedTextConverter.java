@@ -0,0 +1,14 @@
+package com.productivity.assistant.entity;
+
+import jakarta.persistence.Converter;
+
+/**
+ * Compresses every value worth compressing; used for the cold {@code note_archive} tier.
+ */
+@Converter
+public class ArchivedTextConverter extends CompressedTextConverter {
+    
+    public ArchivedTextConverter() {
+        super(64);
+    }
+}
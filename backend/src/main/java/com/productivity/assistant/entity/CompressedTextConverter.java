@@ -0,0 +1,95 @@
+package com.productivity.assistant.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores long text deflated and base64-encoded behind a marker prefix. Values below
+ * the threshold, or that would not get smaller, are stored as-is, and rows written
+ * before compression was enabled read back unchanged.
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, String> {
+    
+    static final String MARKER = "\u0001z:";
+    
+    private static final int DEFAULT_THRESHOLD = 1024;
+    
+    private final int threshold;
+    
+    public CompressedTextConverter() {
+        this(DEFAULT_THRESHOLD);
+    }
+    
+    protected CompressedTextConverter(int threshold) {
+        this.threshold = threshold;
+    }
+    
+    @Override
+    public String convertToDatabaseColumn(String text) {
+        if (text == null) {
+            return null;
+        }
+        // Plain text that happens to start with the marker must be encoded to read back correctly.
+        boolean mustEncode = text.startsWith(MARKER);
+        if (text.length() < threshold && !mustEncode) {
+            return text;
+        }
+        
+        String compressed = MARKER + Base64.getEncoder().encodeToString(deflate(text.getBytes(StandardCharsets.UTF_8)));
+        return compressed.length() < text.length() || mustEncode ? compressed : text;
+    }
+    
+    @Override
+    public String convertToEntityAttribute(String stored) {
+        if (stored == null || !stored.startsWith(MARKER)) {
+            return stored;
+        }
+        byte[] compressed = Base64.getDecoder().decode(stored.substring(MARKER.length()));
+        return new String(inflate(compressed), StandardCharsets.UTF_8);
+    }
+    
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 2));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+    
+    private static byte[] inflate(byte[] input) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 3);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed text");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException ex) {
+            throw new IllegalStateException("Corrupt compressed text", ex);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -1,37 +1,61 @@
 package com.productivity.assistant.entity;
 
+import com.productivity.assistant.config.CacheRegions;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notes")
+@Table(name = "notes", indexes = {
+        @Index(name = "idx_notes_user_created", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_notes_user_sync", columnList = "user_id, sync_seq, id"),
+        @Index(name = "idx_notes_user_archived_created", columnList = "user_id, archived, created_at"),
+        @Index(name = "idx_notes_archived", columnList = "archived, id")
+})
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.NOTES)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Note {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "note_seq")
+    @SequenceGenerator(name = "note_seq", sequenceName = "note_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private String title;
 
+    @Convert(converter = CompressedTextConverter.class)
     @Column(columnDefinition = "TEXT")
     private String content;
 
+    @Convert(converter = CompressedTextConverter.class)
     @Column(columnDefinition = "TEXT")
     private String aiSummary;
 
+    // SHA-256 of the content aiSummary was generated from, so summarize-note can tell
+    // whether the stored summary is still current.
+    @Column(length = 64)
+    private String summaryContentHash;
+
     private String category;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private User user;
 
     @CreationTimestamp
@@ -40,5 +64,19 @@ public class Note {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    // Existing rows pick up 0 when the column is added.
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
+    // Commit-ordered delta-sync position, stamped by SyncStamper as the transaction commits.
+    @Column(name = "sync_seq", insertable = false, updatable = false, columnDefinition = "bigint not null default 0")
+    private long syncSeq;
+
     private boolean archived = false;
+
+    // Set when the tiering sweep has moved content and aiSummary to note_archive; an
+    // archived note with no text of its own is not frozen.
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean textFrozen = false;
 }
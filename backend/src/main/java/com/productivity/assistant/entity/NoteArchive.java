@@ -0,0 +1,40 @@
+package com.productivity.assistant.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cold tier for archived notes. The text bodies of an archived note live here,
+ * compressed, while its row in {@code notes} keeps only the listing columns.
+ */
+@Entity
+@Table(name = "note_archive")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteArchive {
+    @Id
+    private Long noteId;
+
+    @Convert(converter = ArchivedTextConverter.class)
+    @Column(columnDefinition = "LONGTEXT")
+    private String content;
+
+    @Convert(converter = ArchivedTextConverter.class)
+    @Column(columnDefinition = "LONGTEXT")
+    private String aiSummary;
+
+    @CreationTimestamp
+    private LocalDateTime archivedAt;
+
+    public NoteArchive(Long noteId, String content, String aiSummary) {
+        this.noteId = noteId;
+        this.content = content;
+        this.aiSummary = aiSummary;
+    }
+}
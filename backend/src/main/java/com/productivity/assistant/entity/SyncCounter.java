@@ -0,0 +1,21 @@
+package com.productivity.assistant.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last delta-sync sequence number handed out to a user. Rows are written by
+ * {@link com.productivity.assistant.service.SyncStamper}, never through this entity.
+ */
+@Entity
+@Table(name = "sync_counters")
+@Data
+@NoArgsConstructor
+public class SyncCounter {
+    @Id
+    private Long userId;
+
+    @Column(nullable = false)
+    private long lastSeq;
+}
@@ -1,22 +1,38 @@
 package com.productivity.assistant.entity;
 
+import com.productivity.assistant.config.CacheRegions;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_user_status_due", columnList = "user_id, status, due_date"),
+        @Index(name = "idx_tasks_user_priority_created", columnList = "user_id, priority, created_at"),
+        @Index(name = "idx_tasks_user_created", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_tasks_user_sync", columnList = "user_id, sync_seq, id"),
+        @Index(name = "idx_tasks_user_due", columnList = "user_id, due_date")
+})
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.TASKS)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Task {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+    @SequenceGenerator(name = "task_seq", sequenceName = "task_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -40,10 +56,14 @@ public class Task {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private User user;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "note_id")
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Note relatedNote;
 
     @CreationTimestamp
@@ -52,6 +72,15 @@ public class Task {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    // Existing rows pick up 0 when the column is added.
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
+    // Commit-ordered delta-sync position, stamped by SyncStamper as the transaction commits.
+    @Column(name = "sync_seq", insertable = false, updatable = false, columnDefinition = "bigint not null default 0")
+    private long syncSeq;
+
     private LocalDateTime completedAt;
 
     public enum TaskStatus {
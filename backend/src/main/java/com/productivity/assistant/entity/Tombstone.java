@@ -0,0 +1,53 @@
+package com.productivity.assistant.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a deleted task or note so delta sync can tell clients to drop it.
+ * Tombstones older than the sync retention window are compacted away.
+ */
+@Entity
+@Table(name = "tombstones", indexes = {
+        @Index(name = "idx_tombstones_user_sync", columnList = "user_id, sync_seq, id"),
+        @Index(name = "idx_tombstones_deleted", columnList = "deleted_at")
+})
+@Data
+@NoArgsConstructor
+public class Tombstone {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tombstone_seq")
+    @SequenceGenerator(name = "tombstone_seq", sequenceName = "tombstone_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ItemType itemType;
+
+    @Column(nullable = false)
+    private Long itemId;
+
+    @CreationTimestamp
+    private LocalDateTime deletedAt;
+
+    // Commit-ordered delta-sync position, stamped by SyncStamper as the transaction commits.
+    @Column(name = "sync_seq", insertable = false, updatable = false, columnDefinition = "bigint not null default 0")
+    private long syncSeq;
+
+    public Tombstone(Long userId, ItemType itemType, Long itemId) {
+        this.userId = userId;
+        this.itemType = itemType;
+        this.itemId = itemId;
+    }
+
+    public enum ItemType {
+        TASK, NOTE
+    }
+}
@@ -0,0 +1,24 @@
+package com.productivity.assistant.mapper;
+
+import com.productivity.assistant.dto.AiJobDto;
+import com.productivity.assistant.entity.AiJob;
+
+public final class AiJobMapper {
+    
+    private AiJobMapper() {
+    }
+    
+    public static AiJobDto toDto(AiJob job) {
+        AiJobDto dto = new AiJobDto();
+        dto.setId(job.getId());
+        dto.setType(job.getType());
+        dto.setStatus(job.getStatus());
+        dto.setNoteId(job.getNoteId());
+        dto.setAttempts(job.getAttempts());
+        dto.setResult(job.getResult());
+        dto.setError(job.getError());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setCompletedAt(job.getCompletedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,39 @@
+package com.productivity.assistant.mapper;
+
+import com.productivity.assistant.dto.NoteDto;
+import com.productivity.assistant.entity.Note;
+
+public final class NoteMapper {
+    
+    private NoteMapper() {
+    }
+    
+    public static NoteDto toDto(Note note) {
+        NoteDto dto = new NoteDto();
+        dto.setId(note.getId());
+        dto.setTitle(note.getTitle());
+        dto.setContent(note.getContent());
+        dto.setAiSummary(note.getAiSummary());
+        dto.setCategory(note.getCategory());
+        dto.setArchived(note.isArchived());
+        dto.setCreatedAt(note.getCreatedAt());
+        dto.setUpdatedAt(note.getUpdatedAt());
+        dto.setVersion(note.getVersion());
+        dto.setTextFrozen(note.isTextFrozen());
+        return dto;
+    }
+    
+    /**
+     * Copies the client-writable fields of a new note. Ids, timestamps and
+     * the owner are left to the caller.
+     */
+    public static Note toEntity(NoteDto dto) {
+        Note note = new Note();
+        note.setTitle(dto.getTitle());
+        note.setContent(dto.getContent());
+        note.setAiSummary(dto.getAiSummary());
+        note.setCategory(dto.getCategory());
+        note.setArchived(dto.isArchived());
+        return note;
+    }
+}
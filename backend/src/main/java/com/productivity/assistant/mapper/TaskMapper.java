@@ -0,0 +1,49 @@
+package com.productivity.assistant.mapper;
+
+import com.productivity.assistant.dto.TaskDto;
+import com.productivity.assistant.entity.Task;
+
+public final class TaskMapper {
+    
+    private TaskMapper() {
+    }
+    
+    public static TaskDto toDto(Task task) {
+        TaskDto dto = new TaskDto();
+        dto.setId(task.getId());
+        dto.setTitle(task.getTitle());
+        dto.setDescription(task.getDescription());
+        dto.setStatus(task.getStatus());
+        dto.setPriority(task.getPriority());
+        dto.setDueDate(task.getDueDate());
+        dto.setAiGenerated(task.isAiGenerated());
+        dto.setAiSuggestion(task.getAiSuggestion());
+        // getId() on an uninitialized proxy returns the foreign key without loading the note
+        dto.setRelatedNoteId(task.getRelatedNote() != null ? task.getRelatedNote().getId() : null);
+        dto.setCreatedAt(task.getCreatedAt());
+        dto.setUpdatedAt(task.getUpdatedAt());
+        dto.setCompletedAt(task.getCompletedAt());
+        dto.setVersion(task.getVersion());
+        return dto;
+    }
+    
+    /**
+     * Copies the client-writable fields of a new task. Ids, timestamps and
+     * associations are left to the caller.
+     */
+    public static Task toEntity(TaskDto dto) {
+        Task task = new Task();
+        task.setTitle(dto.getTitle());
+        task.setDescription(dto.getDescription());
+        if (dto.getStatus() != null) {
+            task.setStatus(dto.getStatus());
+        }
+        if (dto.getPriority() != null) {
+            task.setPriority(dto.getPriority());
+        }
+        task.setDueDate(dto.getDueDate());
+        task.setAiGenerated(dto.isAiGenerated());
+        task.setAiSuggestion(dto.getAiSuggestion());
+        return task;
+    }
+}
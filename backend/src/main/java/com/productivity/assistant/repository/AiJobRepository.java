@@ -0,0 +1,58 @@
+package com.productivity.assistant.repository;
+
+import com.productivity.assistant.entity.AiJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AiJobRepository extends JpaRepository<AiJob, Long> {
+    
+    Optional<AiJob> findByIdAndUserId(Long id, Long userId);
+    
+    @Query("SELECT j.id FROM AiJob j WHERE j.status = :status AND j.nextAttemptAt <= :now " +
+           "ORDER BY j.nextAttemptAt, j.id")
+    List<Long> findDueIds(AiJob.JobStatus status, LocalDateTime now, Pageable page);
+    
+    // Conditional update so two workers (or two instances) cannot both claim a job.
+    @Modifying
+    @Query("UPDATE AiJob j SET j.status = :running, j.startedAt = :now, j.attempts = j.attempts + 1 " +
+           "WHERE j.id = :id AND j.status = :pending")
+    int claim(Long id, LocalDateTime now, AiJob.JobStatus pending, AiJob.JobStatus running);
+    
+    // Completion and retry only apply while the job is still running under the claim
+    // that started it, so a worker whose job was requeued as stale cannot overwrite it.
+    @Modifying
+    @Query("UPDATE AiJob j SET j.status = :status, j.result = :result, j.error = :error, j.completedAt = :now " +
+           "WHERE j.id = :id AND j.status = :running AND j.startedAt = :claimedAt")
+    int finish(Long id, LocalDateTime claimedAt, String result, String error, LocalDateTime now,
+               AiJob.JobStatus running, AiJob.JobStatus status);
+    
+    @Modifying
+    @Query("UPDATE AiJob j SET j.status = :pending, j.error = :error, j.nextAttemptAt = :nextAttemptAt " +
+           "WHERE j.id = :id AND j.status = :running AND j.startedAt = :claimedAt")
+    int retry(Long id, LocalDateTime claimedAt, String error, LocalDateTime nextAttemptAt,
+              AiJob.JobStatus running, AiJob.JobStatus pending);
+    
+    @Modifying
+    @Query("UPDATE AiJob j SET j.status = :pending, j.nextAttemptAt = :now " +
+           "WHERE j.status = :running AND j.startedAt < :cutoff AND j.attempts < :maxAttempts")
+    int requeueStale(LocalDateTime cutoff, LocalDateTime now, int maxAttempts,
+                     AiJob.JobStatus running, AiJob.JobStatus pending);
+    
+    @Modifying
+    @Query("UPDATE AiJob j SET j.status = :failed, j.error = :error, j.completedAt = :now " +
+           "WHERE j.status = :running AND j.startedAt < :cutoff AND j.attempts >= :maxAttempts")
+    int failStale(LocalDateTime cutoff, LocalDateTime now, int maxAttempts, String error,
+                  AiJob.JobStatus running, AiJob.JobStatus failed);
+    
+    @Modifying
+    @Query("DELETE FROM AiJob j WHERE j.completedAt < :cutoff")
+    int deleteCompletedBefore(LocalDateTime cutoff);
+}
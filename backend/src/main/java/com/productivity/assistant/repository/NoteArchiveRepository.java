@@ -0,0 +1,40 @@
+package com.productivity.assistant.repository;
+
+import com.productivity.assistant.dto.ArchivedNoteText;
+import com.productivity.assistant.dto.NoteDto;
+import com.productivity.assistant.entity.NoteArchive;
+import com.productivity.assistant.search.IndexedDocument;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface NoteArchiveRepository extends JpaRepository<NoteArchive, Long> {
+    
+    @Query("SELECT new com.productivity.assistant.dto.ArchivedNoteText(a.noteId, a.content, a.aiSummary) " +
+           "FROM NoteArchive a WHERE a.noteId IN :noteIds")
+    List<ArchivedNoteText> findTextByNoteIdIn(Collection<Long> noteIds);
+    
+    @Query("SELECT new com.productivity.assistant.search.IndexedDocument(n.id, n.title, a.content) " +
+           "FROM NoteArchive a JOIN Note n ON n.id = a.noteId WHERE n.user.id = :userId")
+    List<IndexedDocument> findIndexedDocuments(Long userId);
+    
+    // Counterpart of NoteRepository.streamByUserId for notes whose text is in the cold tier.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT new com.productivity.assistant.dto.NoteDto(n.id, n.title, a.content, a.aiSummary, n.category, " +
+           "n.archived, n.createdAt, n.updatedAt, n.version) " +
+           "FROM NoteArchive a JOIN Note n ON n.id = a.noteId WHERE n.user.id = :userId ORDER BY n.id")
+    Stream<NoteDto> streamByUserId(Long userId);
+    
+    @Modifying
+    @Query("DELETE FROM NoteArchive a WHERE a.noteId IN :noteIds")
+    int deleteByNoteIdIn(Collection<Long> noteIds);
+}
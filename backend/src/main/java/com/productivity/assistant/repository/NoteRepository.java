@@ -1,24 +1,87 @@
 package com.productivity.assistant.repository;
 
+import com.productivity.assistant.config.CacheRegions;
+import com.productivity.assistant.dto.NoteDto;
 import com.productivity.assistant.entity.Note;
+import com.productivity.assistant.search.IndexedDocument;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface NoteRepository extends JpaRepository<Note, Long> {
+public interface NoteRepository extends JpaRepository<Note, Long>, NoteRepositoryCustom {
+    // Owner-scoped in SQL, so another user's row is never loaded. The cached result
+    // holds only the id; the note itself then comes from the entity region.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.NOTE_LOOKUPS)
+    })
+    @Query("SELECT n FROM Note n WHERE n.id = :id AND n.user.id = :userId")
+    Optional<Note> findByIdAndUserId(Long id, Long userId);
+    
+    @Modifying
+    @Query("DELETE FROM Note n WHERE n.id = :id AND n.user.id = :userId")
+    int deleteByIdAndUserId(Long id, Long userId);
+    
+    @Modifying
+    @Query("DELETE FROM Note n WHERE n.user.id = :userId AND n.id IN :ids")
+    int deleteByUserIdAndIdIn(Long userId, Collection<Long> ids);
+    
     List<Note> findByUserIdOrderByCreatedAtDesc(Long userId);
     List<Note> findByUserIdAndArchivedOrderByCreatedAtDesc(Long userId, boolean archived);
     List<Note> findByUserIdAndCategoryOrderByCreatedAtDesc(Long userId, String category);
     
-    @Query("SELECT n FROM Note n WHERE n.user.id = :userId AND " +
-           "(LOWER(n.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(n.content) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
-    List<Note> searchNotes(Long userId, String searchTerm);
+    List<Note> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
+    
+    @Query("SELECT n FROM Note n WHERE n.archived = true AND n.textFrozen = false " +
+           "AND (n.content IS NOT NULL OR n.aiSummary IS NOT NULL) ORDER BY n.id")
+    List<Note> findArchivedWithText(Pageable page);
+    
+    // Bulk update so moving text to the cold tier does not bump version or updatedAt;
+    // the version check skips notes edited since they were read.
+    @Modifying
+    @Query("UPDATE Note n SET n.content = NULL, n.aiSummary = NULL, n.textFrozen = true " +
+           "WHERE n.id = :id AND n.version = :version AND n.archived = true")
+    int clearArchivedText(Long id, long version);
+    
+    // Flags notes frozen before the textFrozen column existed.
+    @Modifying
+    @Query("UPDATE Note n SET n.textFrozen = true " +
+           "WHERE n.textFrozen = false AND n.id IN (SELECT a.noteId FROM NoteArchive a)")
+    int markArchivedTextFrozen();
+    
+    @Query("SELECT n.id FROM Note n WHERE n.user.id = :userId AND n.id IN :ids")
+    List<Long> findIdsByUserIdAndIdIn(Long userId, Collection<Long> ids);
+    
+    @Query("SELECT new com.productivity.assistant.search.IndexedDocument(n.id, n.title, n.content) " +
+           "FROM Note n WHERE n.user.id = :userId")
+    List<IndexedDocument> findIndexedDocuments(Long userId);
     
     @Query("SELECT COUNT(n) FROM Note n WHERE n.user.id = :userId AND n.createdAt >= :startDate")
     Long countUserNotesAfterDate(Long userId, LocalDateTime startDate);
+    
+    // Integer.MIN_VALUE puts MySQL Connector/J into row-by-row streaming mode.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT new com.productivity.assistant.dto.NoteDto(n.id, n.title, n.content, n.aiSummary, n.category, " +
+           "n.archived, n.createdAt, n.updatedAt, n.version) " +
+           "FROM Note n WHERE n.user.id = :userId AND n.textFrozen = false ORDER BY n.id")
+    Stream<NoteDto> streamByUserId(Long userId);
+    
+    // Rows are {syncSeq, NoteDto}.
+    @Query("SELECT n.syncSeq, new com.productivity.assistant.dto.NoteDto(n.id, n.title, n.content, n.aiSummary, " +
+           "n.category, n.archived, n.createdAt, n.updatedAt, n.version, n.textFrozen) " +
+           "FROM Note n WHERE n.user.id = :userId " +
+           "AND (n.syncSeq > :seq OR (n.syncSeq = :seq AND n.id > :id)) ORDER BY n.syncSeq, n.id")
+    List<Object[]> findChangedSince(Long userId, long seq, Long id, Pageable page);
 }
@@ -0,0 +1,11 @@
+package com.productivity.assistant.repository;
+
+import com.productivity.assistant.dto.KeysetCursor;
+import com.productivity.assistant.dto.NoteDto;
+
+import java.util.List;
+
+public interface NoteRepositoryCustom {
+    List<NoteDto> findListing(Long userId, Boolean archived, boolean includeText);
+    List<NoteDto> findListingPage(Long userId, Boolean archived, KeysetCursor after, int limit, boolean includeText);
+}
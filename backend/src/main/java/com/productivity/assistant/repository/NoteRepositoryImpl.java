@@ -0,0 +1,79 @@
+package com.productivity.assistant.repository;
+
+import com.productivity.assistant.config.CacheRegions;
+import com.productivity.assistant.dto.KeysetCursor;
+import com.productivity.assistant.dto.NoteDto;
+import com.productivity.assistant.entity.Note;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Note listings projected straight into {@link NoteDto}, ordered by {@code (createdAt DESC, id DESC)}.
+ */
+public class NoteRepositoryImpl implements NoteRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<NoteDto> findListing(Long userId, Boolean archived, boolean includeText) {
+        return listingQuery(userId, archived, null, includeText).getResultList();
+    }
+    
+    @Override
+    public List<NoteDto> findListingPage(Long userId, Boolean archived, KeysetCursor after, int limit,
+                                         boolean includeText) {
+        return listingQuery(userId, archived, after, includeText)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+    
+    private TypedQuery<NoteDto> listingQuery(Long userId, Boolean archived, KeysetCursor after, boolean includeText) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<NoteDto> query = cb.createQuery(NoteDto.class);
+        Root<Note> note = query.from(Note.class);
+        
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(note.get("user").get("id"), userId));
+        if (archived != null) {
+            predicates.add(cb.equal(note.get("archived"), archived));
+        }
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(note.<LocalDateTime>get("createdAt"), after.createdAt()),
+                    cb.and(cb.equal(note.get("createdAt"), after.createdAt()),
+                           cb.lessThan(note.<Long>get("id"), after.id()))));
+        }
+        
+        query.select(projection(cb, note, includeText))
+             .where(predicates.toArray(Predicate[]::new))
+             .orderBy(cb.desc(note.get("createdAt")), cb.desc(note.get("id")));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, CacheRegions.NOTE_LISTINGS);
+    }
+    
+    private CompoundSelection<NoteDto> projection(CriteriaBuilder cb, Root<Note> note, boolean includeText) {
+        if (includeText) {
+            return cb.construct(NoteDto.class,
+                    note.get("id"), note.get("title"), note.get("content"), note.get("aiSummary"),
+                    note.get("category"), note.get("archived"), note.get("createdAt"), note.get("updatedAt"),
+                    note.get("version"), note.get("textFrozen"));
+        }
+        return cb.construct(NoteDto.class,
+                note.get("id"), note.get("title"),
+                note.get("category"), note.get("archived"), note.get("createdAt"), note.get("updatedAt"),
+                note.get("version"));
+    }
+}
@@ -0,0 +1,15 @@
+package com.productivity.assistant.repository;
+
+import com.productivity.assistant.entity.SyncCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SyncCounterRepository extends JpaRepository<SyncCounter, Long> {
+    
+    @Query("SELECT c.lastSeq FROM SyncCounter c WHERE c.userId = :userId")
+    Optional<Long> findLastSeq(Long userId);
+}
@@ -1,15 +1,44 @@
 package com.productivity.assistant.repository;
 
+import com.productivity.assistant.config.CacheRegions;
+import com.productivity.assistant.dto.TaskDto;
+import com.productivity.assistant.dto.TaskStatusCount;
 import com.productivity.assistant.entity.Task;
+import com.productivity.assistant.search.IndexedDocument;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
+    // Owner-scoped in SQL, so another user's row is never loaded. The cached result
+    // holds only the id; the task itself then comes from the entity region.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.TASK_LOOKUPS)
+    })
+    @Query("SELECT t FROM Task t WHERE t.id = :id AND t.user.id = :userId")
+    Optional<Task> findByIdAndUserId(Long id, Long userId);
+    
+    @Modifying
+    @Query("DELETE FROM Task t WHERE t.id = :id AND t.user.id = :userId")
+    int deleteByIdAndUserId(Long id, Long userId);
+    
+    @Modifying
+    @Query("DELETE FROM Task t WHERE t.user.id = :userId AND t.id IN :ids")
+    int deleteByUserIdAndIdIn(Long userId, Collection<Long> ids);
+    
     List<Task> findByUserIdOrderByCreatedAtDesc(Long userId);
     List<Task> findByUserIdAndStatusOrderByDueDateAsc(Long userId, Task.TaskStatus status);
     List<Task> findByUserIdAndPriorityOrderByCreatedAtDesc(Long userId, Task.TaskPriority priority);
@@ -23,8 +52,32 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     @Query("SELECT COUNT(t) FROM Task t WHERE t.user.id = :userId AND t.status = :status")
     Long countUserTasksByStatus(Long userId, Task.TaskStatus status);
     
-    @Query("SELECT t FROM Task t WHERE t.user.id = :userId AND " +
-           "(LOWER(t.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(t.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
-    List<Task> searchTasks(Long userId, String searchTerm);
+    @Query("SELECT new com.productivity.assistant.dto.TaskStatusCount(t.status, COUNT(t), " +
+           "SUM(CASE WHEN t.completedAt >= :since THEN 1 ELSE 0 END)) " +
+           "FROM Task t WHERE t.user.id = :userId GROUP BY t.status")
+    List<TaskStatusCount> countByStatus(Long userId, LocalDateTime since);
+    
+    List<Task> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
+    
+    @Query("SELECT t.id FROM Task t WHERE t.user.id = :userId AND t.id IN :ids")
+    List<Long> findIdsByUserIdAndIdIn(Long userId, Collection<Long> ids);
+    
+    @Query("SELECT new com.productivity.assistant.search.IndexedDocument(t.id, t.title, t.description) " +
+           "FROM Task t WHERE t.user.id = :userId")
+    List<IndexedDocument> findIndexedDocuments(Long userId);
+    
+    // Integer.MIN_VALUE puts MySQL Connector/J into row-by-row streaming mode.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT new com.productivity.assistant.dto.TaskDto(t.id, t.title, t.description, t.status, t.priority, " +
+           "t.dueDate, t.aiGenerated, t.aiSuggestion, t.relatedNote.id, t.createdAt, t.updatedAt, t.completedAt, t.version) " +
+           "FROM Task t WHERE t.user.id = :userId ORDER BY t.id")
+    Stream<TaskDto> streamByUserId(Long userId);
+    
+    // Rows are {syncSeq, TaskDto}.
+    @Query("SELECT t.syncSeq, new com.productivity.assistant.dto.TaskDto(t.id, t.title, t.description, t.status, " +
+           "t.priority, t.dueDate, t.aiGenerated, t.aiSuggestion, t.relatedNote.id, t.createdAt, t.updatedAt, " +
+           "t.completedAt, t.version) " +
+           "FROM Task t WHERE t.user.id = :userId " +
+           "AND (t.syncSeq > :seq OR (t.syncSeq = :seq AND t.id > :id)) ORDER BY t.syncSeq, t.id")
+    List<Object[]> findChangedSince(Long userId, long seq, Long id, Pageable page);
 }
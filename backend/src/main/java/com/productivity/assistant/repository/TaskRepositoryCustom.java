@@ -0,0 +1,13 @@
+package com.productivity.assistant.repository;
+
+import com.productivity.assistant.dto.KeysetCursor;
+import com.productivity.assistant.dto.TaskDto;
+import com.productivity.assistant.dto.TaskFilter;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+public interface TaskRepositoryCustom {
+    List<TaskDto> findByFilter(Long userId, TaskFilter filter, Sort sort, boolean includeText);
+    List<TaskDto> findPageByFilter(Long userId, TaskFilter filter, KeysetCursor after, int limit, boolean includeText);
+}
@@ -0,0 +1,120 @@
+package com.productivity.assistant.repository;
+
+import com.productivity.assistant.config.CacheRegions;
+import com.productivity.assistant.dto.KeysetCursor;
+import com.productivity.assistant.dto.TaskDto;
+import com.productivity.assistant.dto.TaskFilter;
+import com.productivity.assistant.entity.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds a single task query from whichever {@link TaskFilter} criteria are set.
+ * Every predicate is anchored on {@code user_id}, matching the composite indexes on {@code tasks}.
+ */
+public class TaskRepositoryImpl implements TaskRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<TaskDto> findByFilter(Long userId, TaskFilter filter, Sort sort, boolean includeText) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskDto> query = cb.createQuery(TaskDto.class);
+        Root<Task> task = query.from(Task.class);
+        
+        List<Predicate> predicates = filterPredicates(cb, task, userId, filter);
+        query.select(projection(cb, task, includeText))
+             .where(predicates.toArray(Predicate[]::new))
+             .orderBy(QueryUtils.toOrders(sort, task, cb));
+        
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, CacheRegions.TASK_LISTINGS)
+                .getResultList();
+    }
+    
+    @Override
+    public List<TaskDto> findPageByFilter(Long userId, TaskFilter filter, KeysetCursor after, int limit,
+                                          boolean includeText) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskDto> query = cb.createQuery(TaskDto.class);
+        Root<Task> task = query.from(Task.class);
+        
+        List<Predicate> predicates = filterPredicates(cb, task, userId, filter);
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(task.<LocalDateTime>get("createdAt"), after.createdAt()),
+                    cb.and(cb.equal(task.get("createdAt"), after.createdAt()),
+                           cb.lessThan(task.<Long>get("id"), after.id()))));
+        }
+        query.select(projection(cb, task, includeText))
+             .where(predicates.toArray(Predicate[]::new))
+             .orderBy(cb.desc(task.get("createdAt")), cb.desc(task.get("id")));
+        
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, CacheRegions.TASK_LISTINGS)
+                .getResultList();
+    }
+    
+    /**
+     * Selects straight into {@link TaskDto}. The related note id is read from the
+     * {@code note_id} column, and the TEXT columns are only selected when requested.
+     */
+    private CompoundSelection<TaskDto> projection(CriteriaBuilder cb, Root<Task> task, boolean includeText) {
+        if (includeText) {
+            return cb.construct(TaskDto.class,
+                    task.get("id"), task.get("title"), task.get("description"),
+                    task.get("status"), task.get("priority"), task.get("dueDate"),
+                    task.get("aiGenerated"), task.get("aiSuggestion"), task.get("relatedNote").get("id"),
+                    task.get("createdAt"), task.get("updatedAt"), task.get("completedAt"), task.get("version"));
+        }
+        return cb.construct(TaskDto.class,
+                task.get("id"), task.get("title"),
+                task.get("status"), task.get("priority"), task.get("dueDate"),
+                task.get("aiGenerated"), task.get("relatedNote").get("id"),
+                task.get("createdAt"), task.get("updatedAt"), task.get("completedAt"), task.get("version"));
+    }
+    
+    private List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Task> task, Long userId, TaskFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(task.get("user").get("id"), userId));
+        
+        if (filter == null) {
+            return predicates;
+        }
+        if (filter.hasStatus()) {
+            predicates.add(task.get("status").in(filter.getStatus()));
+        }
+        if (filter.hasPriority()) {
+            predicates.add(task.get("priority").in(filter.getPriority()));
+        }
+        if (filter.getDueFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(task.<LocalDateTime>get("dueDate"), filter.getDueFrom()));
+        }
+        if (filter.getDueTo() != null) {
+            predicates.add(cb.lessThan(task.<LocalDateTime>get("dueDate"), filter.getDueTo()));
+        }
+        if (filter.getAiGenerated() != null) {
+            predicates.add(cb.equal(task.get("aiGenerated"), filter.getAiGenerated()));
+        }
+        if (filter.getRelatedNoteId() != null) {
+            predicates.add(cb.equal(task.get("relatedNote").get("id"), filter.getRelatedNoteId()));
+        }
+        return predicates;
+    }
+}
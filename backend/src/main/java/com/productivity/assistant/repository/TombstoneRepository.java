@@ -0,0 +1,23 @@
+package com.productivity.assistant.repository;
+
+import com.productivity.assistant.entity.Tombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+    
+    @Query("SELECT d FROM Tombstone d WHERE d.userId = :userId " +
+           "AND (d.syncSeq > :seq OR (d.syncSeq = :seq AND d.id > :id)) ORDER BY d.syncSeq, d.id")
+    List<Tombstone> findChangedSince(Long userId, long seq, Long id, Pageable page);
+    
+    @Modifying
+    @Query("DELETE FROM Tombstone d WHERE d.deletedAt < :cutoff")
+    int deleteOlderThan(LocalDateTime cutoff);
+}
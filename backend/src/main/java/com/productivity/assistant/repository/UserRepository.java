@@ -1,15 +1,27 @@
 package com.productivity.assistant.repository;
 
 import com.productivity.assistant.entity.User;
+import com.productivity.assistant.security.AuthenticatedUser;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByUsername(String username);
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    @Query("SELECT new com.productivity.assistant.security.AuthenticatedUser(u.id, u.username) FROM User u WHERE u.id = :id")
+    Optional<AuthenticatedUser> findPrincipalById(Long id);
+
+    @Query("SELECT new com.productivity.assistant.security.AuthenticatedUser(u.id, u.username) FROM User u WHERE u.username = :username")
+    Optional<AuthenticatedUser> findPrincipalByUsername(String username);
+
+    @Query("SELECT u.id FROM User u ORDER BY u.id DESC")
+    List<Long> findIdsNewestFirst(Pageable page);
 }
@@ -0,0 +1,9 @@
+package com.productivity.assistant.repository;
+
+import com.productivity.assistant.entity.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+    Optional<User> findByUsername(String username);
+}
@@ -0,0 +1,25 @@
+package com.productivity.assistant.repository;
+
+import com.productivity.assistant.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+/**
+ * Resolves users through their {@code username} natural id, so lookups by username
+ * hit the natural-id and entity caches instead of querying {@code users}.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(username);
+    }
+}
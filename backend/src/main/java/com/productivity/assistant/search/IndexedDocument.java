@@ -0,0 +1,4 @@
+package com.productivity.assistant.search;
+
+public record IndexedDocument(Long id, String title, String body) {
+}
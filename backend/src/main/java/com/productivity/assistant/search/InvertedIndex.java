@@ -0,0 +1,215 @@
+package com.productivity.assistant.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Per-user inverted index with prefix matching and BM25 ranking. A user's index is
+ * built from the database on first use and then kept current by incremental updates.
+ */
+public class InvertedIndex {
+    
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 2;
+    private static final double PREFIX_MATCH_WEIGHT = 0.7;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    
+    private final ConcurrentHashMap<Long, UserIndex> users = new ConcurrentHashMap<>();
+    
+    private final int maxUsers;
+    
+    public InvertedIndex(int maxUsers) {
+        this.maxUsers = maxUsers;
+    }
+    
+    public void ensureLoaded(Long userId, Supplier<List<IndexedDocument>> loader) {
+        UserIndex index = users.computeIfAbsent(userId, id -> new UserIndex());
+        index.lastAccess = System.currentTimeMillis();
+        if (index.loaded) {
+            return;
+        }
+        
+        index.lock.writeLock().lock();
+        try {
+            if (!index.loaded) {
+                for (IndexedDocument document : loader.get()) {
+                    index.put(document);
+                }
+                index.loaded = true;
+            }
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+        
+        if (users.size() > maxUsers) {
+            evictLeastRecentlyUsed();
+        }
+    }
+    
+    /**
+     * Adds or replaces a document. Users whose index has not been built yet are skipped;
+     * their documents are read from the database when the index is first loaded.
+     */
+    public void put(Long userId, IndexedDocument document) {
+        UserIndex index = users.get(userId);
+        if (index == null) {
+            return;
+        }
+        index.lock.writeLock().lock();
+        try {
+            index.put(document);
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Long userId, Long documentId) {
+        UserIndex index = users.get(userId);
+        if (index == null) {
+            return;
+        }
+        index.lock.writeLock().lock();
+        try {
+            index.remove(documentId);
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+    
+    public void invalidate(Long userId) {
+        users.remove(userId);
+    }
+    
+    /**
+     * Returns up to {@code limit} document ids ordered by descending BM25 score.
+     */
+    public List<Long> search(Long userId, String query, int limit) {
+        UserIndex index = users.get(userId);
+        LinkedHashSet<String> terms = new LinkedHashSet<>(TextTokenizer.tokenize(query));
+        if (index == null || terms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        
+        Map<Long, Double> scores = new HashMap<>();
+        index.lock.readLock().lock();
+        try {
+            int documentCount = index.lengths.size();
+            if (documentCount == 0) {
+                return new ArrayList<>();
+            }
+            double averageLength = (double) index.totalLength / documentCount;
+            
+            for (String term : terms) {
+                NavigableMap<String, Map<Long, Integer>> matches =
+                        index.postings.subMap(term, true, term + Character.MAX_VALUE, true);
+                int expansions = 0;
+                for (Map.Entry<String, Map<Long, Integer>> match : matches.entrySet()) {
+                    if (expansions++ >= MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    double weight = match.getKey().equals(term) ? 1.0 : PREFIX_MATCH_WEIGHT;
+                    Map<Long, Integer> posting = match.getValue();
+                    double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+                    
+                    for (Map.Entry<Long, Integer> entry : posting.entrySet()) {
+                        int tf = entry.getValue();
+                        int length = index.lengths.get(entry.getKey());
+                        double norm = tf + K1 * (1 - B + B * length / averageLength);
+                        scores.merge(entry.getKey(), weight * idf * tf * (K1 + 1) / norm, Double::sum);
+                    }
+                }
+            }
+        } finally {
+            index.lock.readLock().unlock();
+        }
+        
+        return topK(scores, limit);
+    }
+    
+    private static List<Long> topK(Map<Long, Double> scores, int limit) {
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(heap);
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+        
+        List<Long> ids = new ArrayList<>(ranked.size());
+        for (Map.Entry<Long, Double> entry : ranked) {
+            ids.add(entry.getKey());
+        }
+        return ids;
+    }
+    
+    private void evictLeastRecentlyUsed() {
+        users.entrySet().stream()
+                .min(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                .ifPresent(e -> users.remove(e.getKey(), e.getValue()));
+    }
+    
+    private static final class UserIndex {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+        final Map<Long, Integer> lengths = new HashMap<>();
+        long totalLength;
+        volatile boolean loaded;
+        volatile long lastAccess;
+        
+        void put(IndexedDocument document) {
+            remove(document.id());
+            
+            Map<String, Integer> frequencies = new HashMap<>();
+            int length = 0;
+            for (String token : TextTokenizer.tokenize(document.title())) {
+                frequencies.merge(token, TITLE_WEIGHT, Integer::sum);
+                length += TITLE_WEIGHT;
+            }
+            for (String token : TextTokenizer.tokenize(document.body())) {
+                frequencies.merge(token, 1, Integer::sum);
+                length++;
+            }
+            
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>())
+                        .put(document.id(), entry.getValue());
+            }
+            documents.put(document.id(), frequencies);
+            lengths.put(document.id(), length);
+            totalLength += length;
+        }
+        
+        void remove(Long documentId) {
+            Map<String, Integer> frequencies = documents.remove(documentId);
+            if (frequencies == null) {
+                return;
+            }
+            for (String term : frequencies.keySet()) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting != null) {
+                    posting.remove(documentId);
+                    if (posting.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+            totalLength -= lengths.remove(documentId);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.productivity.assistant.search;
+
+import com.productivity.assistant.config.ReadWriteRoutingDataSource;
+import com.productivity.assistant.entity.Note;
+import com.productivity.assistant.entity.Task;
+import com.productivity.assistant.repository.NoteArchiveRepository;
+import com.productivity.assistant.repository.NoteRepository;
+import com.productivity.assistant.repository.TaskRepository;
+import com.productivity.assistant.repository.UserRepository;
+import com.productivity.assistant.service.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Full-text search over notes and tasks. Indexes are built per user from the database
+ * when the application starts (newest users first, up to the cap) and updated as
+ * NoteService/TaskService commit writes. A user left out or evicted is loaded on
+ * their next search.
+ */
+@Service
+public class SearchIndexService {
+    
+    @Autowired
+    private NoteRepository noteRepository;
+    
+    @Autowired
+    private NoteArchiveRepository noteArchiveRepository;
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${search.max-indexed-users:10000}")
+    private int maxIndexedUsers;
+    
+    @Value("${search.load-on-startup:true}")
+    private boolean loadOnStartup;
+    
+    private TransactionTemplate loadTransaction;
+    
+    private InvertedIndex noteIndex;
+    
+    private InvertedIndex taskIndex;
+    
+    @PostConstruct
+    public void init() {
+        noteIndex = new InvertedIndex(maxIndexedUsers);
+        taskIndex = new InvertedIndex(maxIndexedUsers);
+        
+        // Loads get a transaction and connection of their own, so a caller's read-only
+        // transaction that has already picked a replica cannot carry the load with it.
+        loadTransaction = new TransactionTemplate(transactionManager);
+        loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        loadTransaction.setReadOnly(true);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!loadOnStartup) {
+            return;
+        }
+        for (Long userId : userRepository.findIdsNewestFirst(PageRequest.ofSize(maxIndexedUsers))) {
+            noteIndex.ensureLoaded(userId, () -> noteDocuments(userId));
+            taskIndex.ensureLoaded(userId, () -> taskDocuments(userId));
+        }
+    }
+    
+    public List<Long> searchNotes(Long userId, String query, int limit) {
+        noteIndex.ensureLoaded(userId, () -> noteDocuments(userId));
+        return noteIndex.search(userId, query, limit);
+    }
+    
+    public List<Long> searchTasks(Long userId, String query, int limit) {
+        taskIndex.ensureLoaded(userId, () -> taskDocuments(userId));
+        return taskIndex.search(userId, query, limit);
+    }
+    
+    public void indexNote(Long userId, Note note) {
+        IndexedDocument document = new IndexedDocument(note.getId(), note.getTitle(), note.getContent());
+        AfterCommit.run(() -> noteIndex.put(userId, document));
+    }
+    
+    public void removeNote(Long userId, Long noteId) {
+        AfterCommit.run(() -> noteIndex.remove(userId, noteId));
+    }
+    
+    public void indexTask(Long userId, Task task) {
+        IndexedDocument document = new IndexedDocument(task.getId(), task.getTitle(), task.getDescription());
+        AfterCommit.run(() -> taskIndex.put(userId, document));
+    }
+    
+    public void removeTask(Long userId, Long taskId) {
+        AfterCommit.run(() -> taskIndex.remove(userId, taskId));
+    }
+    
+    // Loads read the primary: a replica missing a recent write would leave it out of
+    // the index for good, since later writes only patch loaded users.
+    private List<IndexedDocument> noteDocuments(Long userId) {
+        return ReadWriteRoutingDataSource.onPrimary(() -> loadTransaction.execute(status -> {
+            // Archived notes moved to the cold tier carry their body in note_archive.
+            List<IndexedDocument> documents = new ArrayList<>(noteRepository.findIndexedDocuments(userId));
+            documents.addAll(noteArchiveRepository.findIndexedDocuments(userId));
+            return documents;
+        }));
+    }
+    
+    private List<IndexedDocument> taskDocuments(Long userId) {
+        return ReadWriteRoutingDataSource.onPrimary(
+                () -> loadTransaction.execute(status -> taskRepository.findIndexedDocuments(userId)));
+    }
+}
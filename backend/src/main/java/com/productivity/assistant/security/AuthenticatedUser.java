@@ -0,0 +1,21 @@
+package com.productivity.assistant.security;
+
+import lombok.Value;
+
+import java.io.Serializable;
+import java.security.Principal;
+
+/**
+ * Lightweight principal built from JWT claims, so authenticated requests
+ * do not need to load the full {@code User} entity.
+ */
+@Value
+public class AuthenticatedUser implements Principal, Serializable {
+    Long userId;
+    String username;
+    
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -0,0 +1,20 @@
+package com.productivity.assistant.security;
+
+import com.productivity.assistant.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UserCacheEvictionListener {
+    
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+    
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        userPrincipalCache.invalidate(user.getId());
+    }
+}
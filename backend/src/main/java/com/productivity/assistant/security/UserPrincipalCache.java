@@ -0,0 +1,59 @@
+package com.productivity.assistant.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Short-lived cache of principals keyed by user id. Entries are dropped after the
+ * configured TTL or as soon as the underlying user row changes.
+ */
+@Component
+public class UserPrincipalCache {
+    
+    @Value("${spring.security.principal-cache.ttl:300000}")
+    private long ttl;
+    
+    @Value("${spring.security.principal-cache.max-size:10000}")
+    private int maxSize;
+    
+    private Cache<Long, AuthenticatedUser> principals;
+    
+    @PostConstruct
+    public void init() {
+        principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .build();
+    }
+    
+    public AuthenticatedUser get(Long userId, Function<Long, AuthenticatedUser> loader) {
+        AuthenticatedUser cached = principals.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+        
+        AuthenticatedUser principal = loader.apply(userId);
+        if (principal == null) {
+            principals.invalidate(userId);
+            return null;
+        }
+        put(principal);
+        return principal;
+    }
+    
+    public void put(AuthenticatedUser principal) {
+        principals.put(principal.getUserId(), principal);
+    }
+    
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            principals.invalidate(userId);
+        }
+    }
+}
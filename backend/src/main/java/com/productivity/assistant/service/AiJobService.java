@@ -0,0 +1,179 @@
+package com.productivity.assistant.service;
+
+import com.productivity.assistant.dto.AiJobDto;
+import com.productivity.assistant.entity.AiJob;
+import com.productivity.assistant.mapper.AiJobMapper;
+import com.productivity.assistant.repository.AiJobRepository;
+import com.productivity.assistant.repository.NoteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Durable queue of AI work. Jobs live in {@code ai_jobs}, so they survive client
+ * disconnects and restarts; {@code AiJobWorker} claims and runs them.
+ */
+@Service
+@Transactional
+public class AiJobService {
+    
+    private static final int MAX_ERROR_LENGTH = 1000;
+    
+    @Autowired
+    private AiJobRepository aiJobRepository;
+    
+    @Autowired
+    private NoteRepository noteRepository;
+    
+    @Value("${ai.jobs.max-attempts:3}")
+    private int maxAttempts;
+    
+    @Value("${ai.jobs.backoff:10s}")
+    private Duration backoff;
+    
+    @Value("${ai.jobs.stale-after:10m}")
+    private Duration staleAfter;
+    
+    @Value("${ai.jobs.retention:7d}")
+    private Duration retention;
+    
+    @Value("${ai.batch.max-request-notes:500}")
+    private int maxRequestNotes;
+    
+    public AiJobDto submitSummarizeNote(Long noteId, Long userId) {
+        requireNotes(List.of(noteId), userId);
+        
+        AiJob job = newJob(AiJob.JobType.SUMMARIZE_NOTE, userId);
+        job.setNoteId(noteId);
+        return AiJobMapper.toDto(aiJobRepository.save(job));
+    }
+    
+    public AiJobDto submitSummarizeNotes(List<Long> noteIds, Long userId) {
+        if (noteIds == null || noteIds.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "noteIds is required");
+        }
+        if (noteIds.size() > maxRequestNotes) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxRequestNotes + " notes can be summarized per request");
+        }
+        requireNotes(noteIds, userId);
+        
+        AiJob job = newJob(AiJob.JobType.SUMMARIZE_NOTES, userId);
+        job.setInputText(noteIds.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        return AiJobMapper.toDto(aiJobRepository.save(job));
+    }
+    
+    public AiJobDto submitGenerateTasks(String text, boolean autoCreate, Long userId) {
+        AiJob job = newJob(AiJob.JobType.GENERATE_TASKS, userId);
+        job.setInputText(text);
+        job.setAutoCreate(autoCreate);
+        return AiJobMapper.toDto(aiJobRepository.save(job));
+    }
+    
+    /**
+     * Fails with 404, naming the ids, unless every note exists and belongs to the user.
+     * Checked on the primary, since a job may be queued right after the note is created.
+     */
+    public void requireNotes(Collection<Long> noteIds, Long userId) {
+        Set<Long> missing = new LinkedHashSet<>(noteIds);
+        missing.removeAll(noteRepository.findIdsByUserIdAndIdIn(userId, missing));
+        if (!missing.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Notes not found: " + missing);
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public AiJobDto getJob(Long jobId, Long userId) {
+        return aiJobRepository.findByIdAndUserId(jobId, userId)
+                .map(AiJobMapper::toDto)
+                .orElseThrow(() -> new RuntimeException("Job not found"));
+    }
+    
+    /**
+     * Claims up to {@code limit} due jobs, marking them running.
+     */
+    public List<AiJob> claimDue(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> claimed = new ArrayList<>();
+        for (Long id : aiJobRepository.findDueIds(AiJob.JobStatus.PENDING, now, PageRequest.ofSize(limit))) {
+            if (aiJobRepository.claim(id, now, AiJob.JobStatus.PENDING, AiJob.JobStatus.RUNNING) == 1) {
+                claimed.add(id);
+            }
+        }
+        return claimed.isEmpty() ? List.of() : aiJobRepository.findAllById(claimed);
+    }
+    
+    /**
+     * Marks a claimed job succeeded. Throws if the claim has been lost to a stale
+     * requeue, which rolls back any side effects written in the same transaction.
+     */
+    public AiJobDto succeed(AiJob job, String result) {
+        if (aiJobRepository.finish(job.getId(), job.getStartedAt(), result, null, LocalDateTime.now(),
+                                   AiJob.JobStatus.RUNNING, AiJob.JobStatus.SUCCEEDED) == 0) {
+            throw new IllegalStateException("Job " + job.getId() + " is no longer claimed by this worker");
+        }
+        return reload(job.getId());
+    }
+    
+    /**
+     * Records a failed attempt of a claimed job. A retryable failure goes back to
+     * pending with exponential backoff until the job has used up its attempts; any
+     * other failure is final. Empty if the claim has been lost to a stale requeue.
+     */
+    public Optional<AiJobDto> fail(AiJob job, String error, boolean retryable) {
+        String message = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        
+        LocalDateTime now = LocalDateTime.now();
+        int updated;
+        if (retryable && job.getAttempts() < maxAttempts) {
+            updated = aiJobRepository.retry(job.getId(), job.getStartedAt(), message,
+                    now.plus(backoff.multipliedBy(1L << (job.getAttempts() - 1))),
+                    AiJob.JobStatus.RUNNING, AiJob.JobStatus.PENDING);
+        } else {
+            updated = aiJobRepository.finish(job.getId(), job.getStartedAt(), null, message, now,
+                                             AiJob.JobStatus.RUNNING, AiJob.JobStatus.FAILED);
+        }
+        return updated == 0 ? Optional.empty() : Optional.of(reload(job.getId()));
+    }
+    
+    /**
+     * Returns jobs whose worker died mid-run to the queue, or fails them if they have
+     * used up their attempts, and drops finished jobs past the retention window.
+     */
+    public void maintain() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minus(staleAfter);
+        aiJobRepository.failStale(cutoff, now, maxAttempts, "Worker did not finish within " + staleAfter,
+                                  AiJob.JobStatus.RUNNING, AiJob.JobStatus.FAILED);
+        aiJobRepository.requeueStale(cutoff, now, maxAttempts, AiJob.JobStatus.RUNNING, AiJob.JobStatus.PENDING);
+        aiJobRepository.deleteCompletedBefore(now.minus(retention));
+    }
+    
+    private AiJobDto reload(Long jobId) {
+        return aiJobRepository.findById(jobId)
+                .map(AiJobMapper::toDto)
+                .orElseThrow(() -> new RuntimeException("Job not found"));
+    }
+    
+    private AiJob newJob(AiJob.JobType type, Long userId) {
+        AiJob job = new AiJob();
+        job.setType(type);
+        job.setUserId(userId);
+        job.setNextAttemptAt(LocalDateTime.now());
+        return job;
+    }
+}
@@ -0,0 +1,22 @@
+package com.productivity.assistant.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class Batches {
+    
+    private Batches() {
+    }
+    
+    /**
+     * Splits items into consecutive views of at most size elements, matching the
+     * JDBC batch size so each chunk is written in a single round trip.
+     */
+    static <T> List<List<T>> chunks(List<T> items, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += size) {
+            chunks.add(items.subList(i, Math.min(i + size, items.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,65 @@
+package com.productivity.assistant.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user versions of the task and note collections, used as ETags for the list
+ * endpoints. Every committed write through TaskService/NoteService moves the user's
+ * version to a fresh value from one process-wide sequence, so a version is never
+ * reused even after an entry is evicted, and the boot id keeps ETags from a previous
+ * run from matching.
+ */
+@Service
+public class CollectionVersionService {
+    
+    public static final String TASKS = "tasks";
+    public static final String NOTES = "notes";
+    
+    @Value("${etag.max-users:100000}")
+    private int maxUsers;
+    
+    private final String bootId = Long.toHexString(UUID.randomUUID().getMostSignificantBits());
+    
+    private final AtomicLong sequence = new AtomicLong();
+    
+    private Cache<String, Long> versions;
+    
+    @PostConstruct
+    public void init() {
+        versions = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .build();
+    }
+    
+    public void changed(String collection, Long userId) {
+        AfterCommit.run(() -> versions.put(key(collection, userId), sequence.incrementAndGet()));
+    }
+    
+    /**
+     * Builds the ETag for one listing of a collection. Request parameters are part of
+     * the tag because each filter or page is a different representation.
+     */
+    public String etag(String collection, Long userId, Map<String, String[]> parameters) {
+        long version = versions.get(key(collection, userId), k -> sequence.incrementAndGet());
+        
+        StringBuilder query = new StringBuilder();
+        new TreeMap<>(parameters).forEach((name, values) -> query.append(name).append('=')
+                .append(String.join(",", values)).append('&'));
+        
+        return "\"" + collection + "-" + bootId + "-" + Long.toHexString(version) + "-"
+                + Integer.toHexString(query.toString().hashCode()) + "\"";
+    }
+    
+    private static String key(String collection, Long userId) {
+        return collection + ":" + userId;
+    }
+}
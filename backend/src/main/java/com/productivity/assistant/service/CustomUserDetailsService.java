@@ -2,6 +2,8 @@ package com.productivity.assistant.service;
 
 import com.productivity.assistant.entity.User;
 import com.productivity.assistant.repository.UserRepository;
+import com.productivity.assistant.security.AuthenticatedUser;
+import com.productivity.assistant.security.UserPrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -15,6 +17,9 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+    
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -29,4 +34,25 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
         return user;
     }
+    
+    /**
+     * Resolves the principal for a verified token. Tokens carrying a user id are answered
+     * from the principal cache; older tokens without one fall back to a lookup by username.
+     */
+    public AuthenticatedUser loadPrincipal(Long userId, String username) {
+        AuthenticatedUser principal;
+        if (userId != null) {
+            principal = userPrincipalCache.get(userId, id -> userRepository.findPrincipalById(id).orElse(null));
+        } else {
+            principal = userRepository.findPrincipalByUsername(username).orElse(null);
+            if (principal != null) {
+                userPrincipalCache.put(principal);
+            }
+        }
+        
+        if (principal == null || !principal.getUsername().equals(username)) {
+            throw new UsernameNotFoundException("User not found with username: " + username);
+        }
+        return principal;
+    }
 }
@@ -0,0 +1,145 @@
+package com.productivity.assistant.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.productivity.assistant.dto.ExportRecord;
+import com.productivity.assistant.dto.NoteDto;
+import com.productivity.assistant.dto.TaskDto;
+import com.productivity.assistant.repository.NoteArchiveRepository;
+import com.productivity.assistant.repository.NoteRepository;
+import com.productivity.assistant.repository.TaskRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's tasks and notes straight from a streaming result set to the
+ * response. Rows are read as DTO projections, so nothing accumulates in the
+ * persistence context and heap use does not grow with the number of rows.
+ * Archived notes whose text is in the cold tier come from a second stream.
+ */
+@Service
+public class ExportService {
+    
+    public enum Format {
+        NDJSON, CSV
+    }
+    
+    public enum Scope {
+        ALL, TASKS, NOTES
+    }
+    
+    private static final String TASK_HEADER = "id,title,description,status,priority,dueDate,aiGenerated," +
+            "aiSuggestion,relatedNoteId,createdAt,updatedAt,completedAt";
+    
+    private static final String NOTE_HEADER = "id,title,content,aiSummary,category,archived,createdAt,updatedAt";
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private NoteRepository noteRepository;
+    
+    @Autowired
+    private NoteArchiveRepository noteArchiveRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Transactional(readOnly = true)
+    public void export(Long userId, Format format, Scope scope, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        
+        if (format == Format.CSV) {
+            if (scope == Scope.TASKS) {
+                writeTaskCsv(userId, writer);
+            } else {
+                writeNoteCsv(userId, writer);
+            }
+        } else {
+            ObjectWriter json = objectMapper.writer();
+            if (scope != Scope.NOTES) {
+                try (Stream<TaskDto> tasks = taskRepository.streamByUserId(userId)) {
+                    writeNdjson(ExportRecord.TASK, tasks.iterator(), json, writer);
+                }
+            }
+            if (scope != Scope.TASKS) {
+                try (Stream<NoteDto> notes = noteRepository.streamByUserId(userId)) {
+                    writeNdjson(ExportRecord.NOTE, notes.iterator(), json, writer);
+                }
+                try (Stream<NoteDto> notes = noteArchiveRepository.streamByUserId(userId)) {
+                    writeNdjson(ExportRecord.NOTE, notes.iterator(), json, writer);
+                }
+            }
+        }
+        writer.flush();
+    }
+    
+    private void writeNdjson(String type, Iterator<?> rows, ObjectWriter json, Writer writer) throws IOException {
+        while (rows.hasNext()) {
+            writer.write(json.writeValueAsString(new ExportRecord(type, rows.next())));
+            writer.write('\n');
+        }
+    }
+    
+    private void writeTaskCsv(Long userId, Writer writer) throws IOException {
+        writer.write(TASK_HEADER);
+        writer.write('\n');
+        try (Stream<TaskDto> tasks = taskRepository.streamByUserId(userId)) {
+            Iterator<TaskDto> rows = tasks.iterator();
+            while (rows.hasNext()) {
+                TaskDto t = rows.next();
+                writeCsvRow(writer, t.getId(), t.getTitle(), t.getDescription(), t.getStatus(), t.getPriority(),
+                            t.getDueDate(), t.isAiGenerated(), t.getAiSuggestion(), t.getRelatedNoteId(),
+                            t.getCreatedAt(), t.getUpdatedAt(), t.getCompletedAt());
+            }
+        }
+    }
+    
+    private void writeNoteCsv(Long userId, Writer writer) throws IOException {
+        writer.write(NOTE_HEADER);
+        writer.write('\n');
+        try (Stream<NoteDto> notes = noteRepository.streamByUserId(userId)) {
+            writeNoteCsvRows(notes.iterator(), writer);
+        }
+        try (Stream<NoteDto> notes = noteArchiveRepository.streamByUserId(userId)) {
+            writeNoteCsvRows(notes.iterator(), writer);
+        }
+    }
+    
+    private void writeNoteCsvRows(Iterator<NoteDto> rows, Writer writer) throws IOException {
+        while (rows.hasNext()) {
+            NoteDto n = rows.next();
+            writeCsvRow(writer, n.getId(), n.getTitle(), n.getContent(), n.getAiSummary(), n.getCategory(),
+                        n.isArchived(), n.getCreatedAt(), n.getUpdatedAt());
+        }
+    }
+    
+    private static void writeCsvRow(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(csvEscape(values[i].toString()));
+            }
+        }
+        writer.write('\n');
+    }
+    
+    private static String csvEscape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
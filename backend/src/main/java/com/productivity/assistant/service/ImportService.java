@@ -0,0 +1,168 @@
+package com.productivity.assistant.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productivity.assistant.dto.ExportRecord;
+import com.productivity.assistant.dto.ImportProgress;
+import com.productivity.assistant.dto.ImportResult;
+import com.productivity.assistant.dto.NoteDto;
+import com.productivity.assistant.dto.TaskDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Imports the NDJSON format written by {@link ExportService}. The upload is read one
+ * line at a time and valid records are written through the batch create paths once a
+ * batch fills up, so the next line is not read until the previous batch is stored.
+ * Each batch commits on its own; a failing batch is reported against its lines and
+ * the import carries on.
+ * <p>
+ * Ids and task-to-note links from the source are not carried over, since they refer
+ * to rows of the exporting installation.
+ */
+@Service
+public class ImportService {
+    
+    @Autowired
+    private TaskService taskService;
+    
+    @Autowired
+    private NoteService noteService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+    
+    @Value("${batch.max-reported-errors:1000}")
+    private int maxReportedErrors;
+    
+    public ImportResult importNdjson(InputStream in, Long userId) throws IOException {
+        return importNdjson(in, userId, progress -> { });
+    }
+    
+    /**
+     * Imports as above, reporting the running counts after every batch that has been
+     * committed or rejected.
+     */
+    public ImportResult importNdjson(InputStream in, Long userId, Consumer<ImportProgress> onProgress)
+            throws IOException {
+        ImportResult result = new ImportResult();
+        Batch<TaskDto> tasks = new Batch<>(taskService::createTasks, onProgress);
+        Batch<NoteDto> notes = new Batch<>(noteService::createNotes, onProgress);
+        
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            result.setLines(result.getLines() + 1);
+            
+            try {
+                ExportRecord record = objectMapper.readValue(line, ExportRecord.class);
+                if (record.getData() == null) {
+                    throw new IllegalArgumentException("Record has no data");
+                }
+                if (ExportRecord.TASK.equals(record.getType())) {
+                    TaskDto task = objectMapper.convertValue(record.getData(), TaskDto.class);
+                    task.setId(null);
+                    task.setRelatedNoteId(null);
+                    validate(task);
+                    tasks.add(lineNumber, task, userId, result);
+                } else if (ExportRecord.NOTE.equals(record.getType())) {
+                    NoteDto note = objectMapper.convertValue(record.getData(), NoteDto.class);
+                    note.setId(null);
+                    validate(note);
+                    notes.add(lineNumber, note, userId, result);
+                } else {
+                    throw new IllegalArgumentException("Unknown record type: " + record.getType());
+                }
+            } catch (JsonProcessingException ex) {
+                reportError(result, lineNumber, "Malformed JSON: " + ex.getOriginalMessage());
+            } catch (IllegalArgumentException ex) {
+                reportError(result, lineNumber, ex.getMessage());
+            }
+        }
+        
+        tasks.flush(userId, result);
+        notes.flush(userId, result);
+        return result;
+    }
+    
+    private void validate(Object dto) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+    
+    private void reportError(ImportResult result, long line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new ImportResult.LineError(line, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+    
+    private class Batch<T> {
+        private final BiFunction<List<T>, Long, List<T>> writer;
+        private final Consumer<ImportProgress> onProgress;
+        private final List<T> items = new ArrayList<>();
+        private final List<Long> lines = new ArrayList<>();
+        
+        Batch(BiFunction<List<T>, Long, List<T>> writer, Consumer<ImportProgress> onProgress) {
+            this.writer = writer;
+            this.onProgress = onProgress;
+        }
+        
+        void add(long line, T item, Long userId, ImportResult result) {
+            items.add(item);
+            lines.add(line);
+            if (items.size() >= batchSize) {
+                flush(userId, result);
+            }
+        }
+        
+        void flush(Long userId, ImportResult result) {
+            if (items.isEmpty()) {
+                return;
+            }
+            try {
+                writer.apply(items, userId);
+                result.setImported(result.getImported() + items.size());
+            } catch (RuntimeException ex) {
+                for (Long line : lines) {
+                    reportError(result, line, "Batch failed: " + ex.getMessage());
+                }
+            }
+            items.clear();
+            lines.clear();
+            onProgress.accept(new ImportProgress(result.getLines(), result.getImported(), result.getFailed()));
+        }
+    }
+}
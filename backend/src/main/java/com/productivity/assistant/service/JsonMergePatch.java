@@ -0,0 +1,87 @@
+package com.productivity.assistant.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * RFC 7386 merge patch onto flat DTOs: members present in the patch replace the
+ * current value, explicit nulls clear it, and absent members are left alone. The
+ * result is validated with the same constraints as a full update.
+ */
+@Component
+public class JsonMergePatch {
+    
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+    
+    private static final String VERSION_FIELD = "version";
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private Validator validator;
+    
+    public <T> T apply(T current, JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Merge patch must be a JSON object");
+        }
+        
+        T patched;
+        try {
+            patched = objectMapper.readerForUpdating(current).readValue(patch);
+        } catch (IOException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid merge patch: " + ex.getMessage());
+        }
+        
+        Set<ConstraintViolation<T>> violations = validator.validate(patched);
+        if (!violations.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining("; ")));
+        }
+        return patched;
+    }
+    
+    /**
+     * Checks the version the client last saw, from If-Match (412 on mismatch) or
+     * from a {@code version} member of the body (409 on mismatch).
+     */
+    public void checkVersion(long current, Long ifMatch, JsonNode patch) {
+        if (ifMatch != null && ifMatch != current) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Version mismatch");
+        }
+        JsonNode version = patch != null ? patch.get(VERSION_FIELD) : null;
+        if (version != null && !version.isNull() && version.asLong() != current) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Version mismatch");
+        }
+    }
+    
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        try {
+            return Long.parseLong(value.replace("\"", ""));
+        } catch (NumberFormatException ex) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Unrecognized If-Match");
+        }
+    }
+    
+    public static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+}
@@ -1,17 +1,37 @@
 package com.productivity.assistant.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.productivity.assistant.ai.ContentHash;
+import com.productivity.assistant.dto.BatchRequest;
+import com.productivity.assistant.dto.BatchResult;
+import com.productivity.assistant.dto.CursorPage;
+import com.productivity.assistant.dto.KeysetCursor;
 import com.productivity.assistant.dto.NoteDto;
 import com.productivity.assistant.entity.Note;
+import com.productivity.assistant.entity.Tombstone;
 import com.productivity.assistant.entity.User;
+import com.productivity.assistant.mapper.NoteMapper;
 import com.productivity.assistant.repository.NoteRepository;
 import com.productivity.assistant.repository.UserRepository;
-import org.springframework.beans.BeanUtils;
+import com.productivity.assistant.search.SearchIndexService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,97 +44,309 @@ public class NoteService {
     @Autowired
     private UserRepository userRepository;
     
-    public NoteDto createNote(NoteDto noteDto, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    @Autowired
+    private SearchIndexService searchIndexService;
+    
+    @Autowired
+    private StatsService statsService;
+    
+    @Autowired
+    private CollectionVersionService collectionVersions;
+    
+    @Autowired
+    private SyncService syncService;
+    
+    @Autowired
+    private JsonMergePatch jsonMergePatch;
+    
+    @Autowired
+    private NoteTieringService noteTieringService;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+    
+    @Value("${batch.max-operations:10000}")
+    private int maxBatchOperations;
+    
+    public NoteDto createNote(NoteDto noteDto, Long userId) {
+        User user = userRepository.getReferenceById(userId);
         
-        Note note = new Note();
-        BeanUtils.copyProperties(noteDto, note, "id", "createdAt", "updatedAt");
+        Note note = NoteMapper.toEntity(noteDto);
         note.setUser(user);
         
         Note savedNote = noteRepository.save(note);
-        return convertToDto(savedNote);
+        searchIndexService.indexNote(userId, savedNote);
+        statsService.noteCreated(userId);
+        collectionVersions.changed(CollectionVersionService.NOTES, userId);
+        return NoteMapper.toDto(savedNote);
     }
     
-    public NoteDto updateNote(Long noteId, NoteDto noteDto, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        
-        Note note = noteRepository.findById(noteId)
+    public NoteDto updateNote(Long noteId, NoteDto noteDto, Long userId) {
+        Note note = noteRepository.findByIdAndUserId(noteId, userId)
                 .orElseThrow(() -> new RuntimeException("Note not found"));
+        if (noteDto.getVersion() != null && noteDto.getVersion() != note.getVersion()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Version mismatch");
+        }
         
-        if (!note.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Unauthorized to update this note");
+        noteTieringService.thaw(List.of(note));
+        return saveUpdate(note, noteDto, userId);
+    }
+    
+    /**
+     * Stores an AI summary produced from the DTO's content, recording that content's
+     * hash so the summary can be reused until the content changes.
+     */
+    public NoteDto updateSummary(Long noteId, NoteDto noteDto, Long userId) {
+        Note note = noteRepository.findByIdAndUserId(noteId, userId)
+                .orElseThrow(() -> new RuntimeException("Note not found"));
+        if (noteDto.getVersion() != null && noteDto.getVersion() != note.getVersion()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Version mismatch");
         }
         
-        note.setTitle(noteDto.getTitle());
-        note.setContent(noteDto.getContent());
-        note.setCategory(noteDto.getCategory());
-        note.setArchived(noteDto.isArchived());
-        note.setAiSummary(noteDto.getAiSummary());
+        noteTieringService.thaw(List.of(note));
+        note.setSummaryContentHash(ContentHash.of(noteDto.getContent()));
+        return saveUpdate(note, noteDto, userId);
+    }
+    
+    /**
+     * Applies a JSON merge patch. Only members present in the patch change, and with
+     * dynamic updates untouched TEXT columns are left out of the UPDATE.
+     */
+    public NoteDto patchNote(Long noteId, JsonNode patch, Long ifMatch, Long userId) {
+        Note note = noteRepository.findByIdAndUserId(noteId, userId)
+                .orElseThrow(() -> new RuntimeException("Note not found"));
+        jsonMergePatch.checkVersion(note.getVersion(), ifMatch, patch);
+        noteTieringService.thaw(List.of(note));
         
-        Note updatedNote = noteRepository.save(note);
-        return convertToDto(updatedNote);
+        NoteDto patched = jsonMergePatch.apply(NoteMapper.toDto(note), patch);
+        return saveUpdate(note, patched, userId);
     }
     
-    public void deleteNote(Long noteId, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    /**
+     * Writes the DTO onto a note the caller has already thawed.
+     */
+    private NoteDto saveUpdate(Note note, NoteDto noteDto, Long userId) {
+        applyUpdate(note, noteDto);
         
-        Note note = noteRepository.findById(noteId)
-                .orElseThrow(() -> new RuntimeException("Note not found"));
+        // Flushing here surfaces a concurrent write as a conflict and returns the new version.
+        Note updatedNote;
+        try {
+            updatedNote = noteRepository.saveAndFlush(note);
+        } catch (OptimisticLockingFailureException ex) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Note was modified concurrently");
+        }
+        searchIndexService.indexNote(userId, updatedNote);
+        collectionVersions.changed(CollectionVersionService.NOTES, userId);
+        return NoteMapper.toDto(updatedNote);
+    }
+    
+    public void deleteNote(Long noteId, Long userId) {
+        if (noteRepository.deleteByIdAndUserId(noteId, userId) == 0) {
+            throw new RuntimeException("Note not found");
+        }
+        searchIndexService.removeNote(userId, noteId);
+        noteTieringService.forget(List.of(noteId));
+        syncService.recordDeletions(userId, Tombstone.ItemType.NOTE, List.of(noteId));
+        statsService.invalidate(userId);
+        collectionVersions.changed(CollectionVersionService.NOTES, userId);
+    }
+    
+    /**
+     * Applies creates, updates and deletes in one transaction, writing each chunk
+     * as a JDBC batch and clearing the persistence context between chunks.
+     */
+    public BatchResult<NoteDto> applyBatch(BatchRequest<NoteDto> batch, Long userId) {
+        if (batch.size() > maxBatchOperations) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Batch exceeds " + maxBatchOperations + " operations");
+        }
         
-        if (!note.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Unauthorized to delete this note");
+        List<NoteDto> created = batch.getCreate() != null ? createNotes(batch.getCreate(), userId) : new ArrayList<>();
+        List<NoteDto> updated = new ArrayList<>();
+        List<Long> notFound = new ArrayList<>();
+        List<Long> conflicts = new ArrayList<>();
+        int deleted = 0;
+        
+        if (batch.getUpdate() != null) {
+            for (List<NoteDto> chunk : Batches.chunks(batch.getUpdate(), batchSize)) {
+                Map<Long, NoteDto> changes = chunk.stream()
+                        .filter(dto -> dto.getId() != null)
+                        .collect(Collectors.toMap(NoteDto::getId, Function.identity(), (a, b) -> b));
+                Map<Long, Note> notes = noteRepository.findByUserIdAndIdIn(userId, changes.keySet()).stream()
+                        .collect(Collectors.toMap(Note::getId, Function.identity()));
+                
+                for (Map.Entry<Long, NoteDto> change : changes.entrySet()) {
+                    Note note = notes.get(change.getKey());
+                    if (note == null) {
+                        notFound.add(change.getKey());
+                        continue;
+                    }
+                    Long version = change.getValue().getVersion();
+                    if (version != null && version != note.getVersion()) {
+                        conflicts.add(note.getId());
+                        notes.remove(note.getId());
+                    }
+                }
+                // Only notes that pass the version check are thawed, so a rejected
+                // update leaves its note untouched.
+                noteTieringService.thaw(notes.values());
+                for (Note note : notes.values()) {
+                    applyUpdate(note, changes.get(note.getId()));
+                }
+                flushAndClear();
+                for (Note note : notes.values()) {
+                    searchIndexService.indexNote(userId, note);
+                    updated.add(NoteMapper.toDto(note));
+                }
+            }
         }
         
-        noteRepository.delete(note);
+        if (batch.getDelete() != null) {
+            for (List<Long> chunk : Batches.chunks(batch.getDelete(), batchSize)) {
+                List<Long> owned = noteRepository.findIdsByUserIdAndIdIn(userId, chunk);
+                if (owned.isEmpty()) {
+                    continue;
+                }
+                deleted += noteRepository.deleteByUserIdAndIdIn(userId, owned);
+                owned.forEach(id -> searchIndexService.removeNote(userId, id));
+                noteTieringService.forget(owned);
+                syncService.recordDeletions(userId, Tombstone.ItemType.NOTE, owned);
+            }
+        }
+        
+        if (deleted > 0) {
+            statsService.invalidate(userId);
+        }
+        collectionVersions.changed(CollectionVersionService.NOTES, userId);
+        return new BatchResult<>(created, updated, deleted, notFound, conflicts);
     }
     
-    public NoteDto getNoteById(Long noteId, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    public List<NoteDto> createNotes(List<NoteDto> noteDtos, Long userId) {
+        User user = userRepository.getReferenceById(userId);
         
-        Note note = noteRepository.findById(noteId)
+        List<NoteDto> created = new ArrayList<>(noteDtos.size());
+        for (List<NoteDto> chunk : Batches.chunks(noteDtos, batchSize)) {
+            List<Note> notes = new ArrayList<>(chunk.size());
+            for (NoteDto noteDto : chunk) {
+                Note note = NoteMapper.toEntity(noteDto);
+                note.setUser(user);
+                notes.add(note);
+            }
+            noteRepository.saveAll(notes);
+            flushAndClear();
+            
+            for (Note note : notes) {
+                searchIndexService.indexNote(userId, note);
+                statsService.noteCreated(userId);
+                created.add(NoteMapper.toDto(note));
+            }
+        }
+        collectionVersions.changed(CollectionVersionService.NOTES, userId);
+        return created;
+    }
+    
+    @Transactional(readOnly = true)
+    public NoteDto getNoteById(Long noteId, Long userId) {
+        Note note = noteRepository.findByIdAndUserId(noteId, userId)
                 .orElseThrow(() -> new RuntimeException("Note not found"));
         
-        if (!note.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Unauthorized to view this note");
+        return noteTieringService.fillArchivedText(NoteMapper.toDto(note));
+    }
+    
+    private void applyUpdate(Note note, NoteDto noteDto) {
+        note.setTitle(noteDto.getTitle());
+        note.setContent(noteDto.getContent());
+        note.setCategory(noteDto.getCategory());
+        note.setArchived(noteDto.isArchived());
+        note.setAiSummary(noteDto.getAiSummary());
+    }
+    
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+    
+    /**
+     * Returns the stored AI summary if it was generated from the note's current content.
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> getCurrentSummary(Long noteId, Long userId) {
+        Note note = noteRepository.findByIdAndUserId(noteId, userId)
+                .orElseThrow(() -> new RuntimeException("Note not found"));
+        if (note.getSummaryContentHash() == null) {
+            return Optional.empty();
         }
         
-        return convertToDto(note);
+        NoteDto dto = noteTieringService.fillArchivedText(NoteMapper.toDto(note));
+        if (dto.getAiSummary() == null || !note.getSummaryContentHash().equals(ContentHash.of(dto.getContent()))) {
+            return Optional.empty();
+        }
+        return Optional.of(dto.getAiSummary());
     }
     
-    public List<NoteDto> getUserNotes(String username, Boolean archived) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        
-        List<Note> notes;
-        if (archived != null) {
-            notes = noteRepository.findByUserIdAndArchivedOrderByCreatedAtDesc(user.getId(), archived);
-        } else {
-            notes = noteRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
+    /**
+     * Loads the user's notes among {@code noteIds} with their text, partitioned by
+     * whether the stored AI summary is current ({@code true}) or needs regenerating.
+     * Ids that do not exist or belong to someone else are left out.
+     */
+    @Transactional(readOnly = true)
+    public Map<Boolean, List<NoteDto>> getNotesBySummaryCurrent(Collection<Long> noteIds, Long userId) {
+        List<Note> notes = noteRepository.findByUserIdAndIdIn(userId, noteIds);
+        Map<Long, String> hashes = new HashMap<>();
+        for (Note note : notes) {
+            hashes.put(note.getId(), note.getSummaryContentHash());
         }
         
-        return notes.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        List<NoteDto> dtos = noteTieringService.fillArchivedText(notes.stream()
+                .map(NoteMapper::toDto)
+                .collect(Collectors.toList()));
+        return dtos.stream().collect(Collectors.partitioningBy(dto -> dto.getAiSummary() != null
+                && hashes.get(dto.getId()) != null
+                && hashes.get(dto.getId()).equals(ContentHash.of(dto.getContent()))));
     }
     
-    public List<NoteDto> searchNotes(String username, String searchTerm) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        
-        List<Note> notes = noteRepository.searchNotes(user.getId(), searchTerm);
+    @Transactional(readOnly = true)
+    public List<NoteDto> getUserNotes(Long userId, Boolean archived) {
+        return getUserNotes(userId, archived, true);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<NoteDto> getUserNotes(Long userId, Boolean archived, boolean includeText) {
+        List<NoteDto> notes = noteRepository.findListing(userId, archived, includeText);
+        return includeText ? noteTieringService.fillArchivedText(notes) : notes;
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<NoteDto> getUserNotesPage(Long userId, Boolean archived, String cursor, Integer limit,
+                                                boolean includeText) {
+        int pageSize = KeysetCursor.pageSize(limit);
+        List<NoteDto> notes = noteRepository.findListingPage(userId, archived, KeysetCursor.decode(cursor),
+                                                             pageSize + 1, includeText);
+        if (includeText) {
+            noteTieringService.fillArchivedText(notes);
+        }
         
-        return notes.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return CursorPage.of(notes, pageSize, Function.identity(),
+                             n -> new KeysetCursor(n.getCreatedAt(), n.getId()));
     }
     
-    private NoteDto convertToDto(Note note) {
-        NoteDto dto = new NoteDto();
-        BeanUtils.copyProperties(note, dto);
-        return dto;
+    @Transactional(readOnly = true)
+    public List<NoteDto> searchNotes(Long userId, String searchTerm, int limit) {
+        List<Long> ids = searchIndexService.searchNotes(userId, searchTerm, limit);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        Map<Long, Note> notes = noteRepository.findByUserIdAndIdIn(userId, ids).stream()
+                .collect(Collectors.toMap(Note::getId, Function.identity()));
+        
+        return noteTieringService.fillArchivedText(ids.stream()
+                .map(notes::get)
+                .filter(Objects::nonNull)
+                .map(NoteMapper::toDto)
+                .collect(Collectors.toList()));
     }
 }
@@ -0,0 +1,140 @@
+package com.productivity.assistant.service;
+
+import com.productivity.assistant.dto.ArchivedNoteText;
+import com.productivity.assistant.dto.NoteDto;
+import com.productivity.assistant.entity.Note;
+import com.productivity.assistant.entity.NoteArchive;
+import com.productivity.assistant.repository.NoteArchiveRepository;
+import com.productivity.assistant.repository.NoteRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Moves the text of archived notes out of the hot {@code notes} table into the
+ * compressed {@code note_archive} table, and brings it back when needed.
+ * <p>
+ * Archiving only flips the flag; a background sweep moves the text afterwards, so
+ * every write path (single, batch, import) is covered. Readers fill in the text of
+ * archived notes from the cold tier, and writers thaw a note before changing it.
+ */
+@Service
+@Transactional
+public class NoteTieringService {
+    
+    @Autowired
+    private NoteRepository noteRepository;
+    
+    @Autowired
+    private NoteArchiveRepository noteArchiveRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${notes.tiering.batch-size:200}")
+    private int batchSize;
+    
+    /**
+     * Fills in content and summary for archived notes whose text lives in the cold tier.
+     */
+    @Transactional(readOnly = true)
+    public List<NoteDto> fillArchivedText(List<NoteDto> notes) {
+        List<Long> frozen = notes.stream()
+                .filter(NoteDto::isTextFrozen)
+                .map(NoteDto::getId)
+                .collect(Collectors.toList());
+        if (frozen.isEmpty()) {
+            return notes;
+        }
+        
+        Map<Long, ArchivedNoteText> texts = noteArchiveRepository.findTextByNoteIdIn(frozen).stream()
+                .collect(Collectors.toMap(ArchivedNoteText::noteId, Function.identity()));
+        for (NoteDto note : notes) {
+            ArchivedNoteText text = texts.get(note.getId());
+            if (text != null) {
+                note.setContent(text.content());
+                note.setAiSummary(text.aiSummary());
+                note.setTextFrozen(false);
+            }
+        }
+        return notes;
+    }
+    
+    public NoteDto fillArchivedText(NoteDto note) {
+        fillArchivedText(List.of(note));
+        return note;
+    }
+    
+    /**
+     * Moves cold-tier text back onto managed notes before they are modified. Notes
+     * that stay archived are frozen again by the next sweep.
+     */
+    public void thaw(Collection<Note> notes) {
+        List<Long> frozen = notes.stream()
+                .filter(Note::isTextFrozen)
+                .map(Note::getId)
+                .collect(Collectors.toList());
+        if (frozen.isEmpty()) {
+            return;
+        }
+        
+        Map<Long, ArchivedNoteText> texts = noteArchiveRepository.findTextByNoteIdIn(frozen).stream()
+                .collect(Collectors.toMap(ArchivedNoteText::noteId, Function.identity()));
+        for (Note note : notes) {
+            if (!note.isTextFrozen()) {
+                continue;
+            }
+            ArchivedNoteText text = texts.get(note.getId());
+            if (text != null) {
+                note.setContent(text.content());
+                note.setAiSummary(text.aiSummary());
+            }
+            note.setTextFrozen(false);
+        }
+        noteArchiveRepository.deleteByNoteIdIn(texts.keySet());
+    }
+    
+    public void forget(Collection<Long> noteIds) {
+        noteArchiveRepository.deleteByNoteIdIn(noteIds);
+    }
+    
+    @Scheduled(fixedDelayString = "${notes.tiering.interval:600000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void sweep() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> noteRepository.markArchivedTextFrozen());
+        Integer moved;
+        do {
+            moved = transaction.execute(status -> freezeBatch());
+        } while (moved != null && moved == batchSize);
+    }
+    
+    private int freezeBatch() {
+        List<Note> notes = noteRepository.findArchivedWithText(PageRequest.ofSize(batchSize));
+        for (Note note : notes) {
+            if (noteRepository.clearArchivedText(note.getId(), note.getVersion()) == 1) {
+                entityManager.persist(new NoteArchive(note.getId(), note.getContent(), note.getAiSummary()));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return notes.size();
+    }
+}
@@ -0,0 +1,180 @@
+package com.productivity.assistant.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.productivity.assistant.config.ReadWriteRoutingDataSource;
+import com.productivity.assistant.dto.DashboardStats;
+import com.productivity.assistant.dto.TaskStatusCount;
+import com.productivity.assistant.entity.Task;
+import com.productivity.assistant.repository.NoteRepository;
+import com.productivity.assistant.repository.TaskRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Dashboard counts per user. The first read of the day runs one GROUP BY over the
+ * user's tasks plus a count of today's notes; after that the numbers are kept in
+ * memory and adjusted as TaskService/NoteService commit writes. Writes whose effect
+ * is not known without a lookup (deletes, batch updates) drop the user's counters so
+ * the next read reloads them, and entries also expire after a TTL so any drift from
+ * a write racing a reload is short-lived. Counters are loaded from the primary, since
+ * a replica's lagged copy would be patched and served for the whole TTL.
+ */
+@Service
+public class StatsService {
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private NoteRepository noteRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${stats.counters.enabled:true}")
+    private boolean countersEnabled;
+    
+    @Value("${stats.counters.ttl:300000}")
+    private long ttl;
+    
+    @Value("${stats.counters.max-users:10000}")
+    private int maxUsers;
+    
+    private Cache<Long, Counters> counters;
+    
+    private TransactionTemplate loadTransaction;
+    
+    @PostConstruct
+    public void init() {
+        counters = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .build();
+        
+        // A transaction of its own, so the load takes a fresh connection on the primary and
+        // sees only committed writes; the caller's writes reach the counters after commit.
+        loadTransaction = new TransactionTemplate(transactionManager);
+        loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        loadTransaction.setReadOnly(true);
+    }
+    
+    @Transactional(readOnly = true)
+    public DashboardStats getStats(Long userId) {
+        LocalDate today = LocalDate.now();
+        if (!countersEnabled) {
+            return load(userId, today).snapshot();
+        }
+        
+        Counters cached = counters.getIfPresent(userId);
+        if (cached != null && cached.isCurrent(today)) {
+            return cached.snapshot();
+        }
+        
+        Counters loaded = ReadWriteRoutingDataSource.onPrimary(
+                () -> loadTransaction.execute(status -> load(userId, today)));
+        counters.put(userId, loaded);
+        return loaded.snapshot();
+    }
+    
+    /**
+     * Records a task changing from one state to another. A null old status means the
+     * task was created.
+     */
+    public void taskChanged(Long userId, Task.TaskStatus oldStatus, LocalDateTime oldCompletedAt,
+                            Task.TaskStatus newStatus, LocalDateTime newCompletedAt) {
+        applyAfterCommit(userId, c -> {
+            if (oldStatus != null) {
+                c.addTask(oldStatus, oldCompletedAt, -1);
+            }
+            c.addTask(newStatus, newCompletedAt, 1);
+        });
+    }
+    
+    public void noteCreated(Long userId) {
+        applyAfterCommit(userId, c -> c.addNote(1));
+    }
+    
+    public void invalidate(Long userId) {
+        applyAfterCommit(userId, c -> counters.asMap().remove(userId, c));
+    }
+    
+    private Counters load(Long userId, LocalDate day) {
+        LocalDateTime since = day.atStartOfDay();
+        Counters loaded = new Counters(day);
+        for (TaskStatusCount count : taskRepository.countByStatus(userId, since)) {
+            loaded.tasksByStatus.put(count.getStatus(), count.getTotal());
+            if (count.getStatus() == Task.TaskStatus.COMPLETED && count.getCompletedSince() != null) {
+                loaded.completedToday = count.getCompletedSince();
+            }
+        }
+        loaded.notesCreatedToday = noteRepository.countUserNotesAfterDate(userId, since);
+        return loaded;
+    }
+    
+    private void applyAfterCommit(Long userId, Consumer<Counters> update) {
+        if (!countersEnabled) {
+            return;
+        }
+        Runnable action = () -> {
+            Counters cached = counters.getIfPresent(userId);
+            if (cached == null) {
+                return;
+            }
+            if (!cached.isCurrent(LocalDate.now())) {
+                counters.asMap().remove(userId, cached);
+                return;
+            }
+            update.accept(cached);
+        };
+        
+        AfterCommit.run(action);
+    }
+    
+    private static class Counters {
+        private final LocalDate day;
+        private final Map<Task.TaskStatus, Long> tasksByStatus = new EnumMap<>(Task.TaskStatus.class);
+        private long completedToday;
+        private long notesCreatedToday;
+        
+        Counters(LocalDate day) {
+            this.day = day;
+            for (Task.TaskStatus status : Task.TaskStatus.values()) {
+                tasksByStatus.put(status, 0L);
+            }
+        }
+        
+        boolean isCurrent(LocalDate today) {
+            return day.equals(today);
+        }
+        
+        synchronized void addTask(Task.TaskStatus status, LocalDateTime completedAt, long delta) {
+            tasksByStatus.merge(status, delta, Long::sum);
+            if (status == Task.TaskStatus.COMPLETED && completedAt != null && !completedAt.isBefore(day.atStartOfDay())) {
+                completedToday += delta;
+            }
+        }
+        
+        synchronized void addNote(long delta) {
+            notesCreatedToday += delta;
+        }
+        
+        synchronized DashboardStats snapshot() {
+            long pending = tasksByStatus.get(Task.TaskStatus.PENDING) + tasksByStatus.get(Task.TaskStatus.IN_PROGRESS);
+            return new DashboardStats(new EnumMap<>(tasksByStatus), pending, completedToday, notesCreatedToday);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.productivity.assistant.service;
+
+import com.productivity.assistant.dto.NoteDto;
+import com.productivity.assistant.dto.SyncCursor;
+import com.productivity.assistant.dto.SyncResponse;
+import com.productivity.assistant.dto.TaskDto;
+import com.productivity.assistant.entity.Tombstone;
+import com.productivity.assistant.repository.NoteRepository;
+import com.productivity.assistant.repository.SyncCounterRepository;
+import com.productivity.assistant.repository.TaskRepository;
+import com.productivity.assistant.repository.TombstoneRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Delta sync over tasks, notes and delete tombstones. Each stream is read in
+ * {@code (syncSeq, id)} order from its {@code (user_id, sync_seq, id)} index, so a
+ * sync with nothing new costs one empty index range per stream.
+ * <p>
+ * {@link SyncStamper} draws the sequence as a write commits, so a user's rows become
+ * visible in sequence order and a cursor never skips a row that commits later.
+ * Rows written within the settle lag are still handed out again on the next sync,
+ * as a margin for replicas that apply commits out of order for a moment.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SyncService {
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private NoteRepository noteRepository;
+    
+    @Autowired
+    private TombstoneRepository tombstoneRepository;
+    
+    @Autowired
+    private SyncCounterRepository syncCounterRepository;
+    
+    @Autowired
+    private NoteTieringService noteTieringService;
+    
+    @Value("${sync.page-size:500}")
+    private int pageSize;
+    
+    @Value("${sync.settle-lag:5s}")
+    private Duration settleLag;
+    
+    @Value("${sync.tombstone-retention:30d}")
+    private Duration tombstoneRetention;
+    
+    /**
+     * Returns changes after the cursor. Without a cursor every task and note is
+     * returned and deletions start from now, since a fresh client has nothing to drop.
+     */
+    public SyncResponse changesSince(Long userId, String cursor) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime settled = now.minus(settleLag);
+        
+        SyncCursor since = SyncCursor.decode(cursor);
+        if (since == null) {
+            SyncCursor.Position start = new SyncCursor.Position(0, 0);
+            long lastSeq = syncCounterRepository.findLastSeq(userId).orElse(0L);
+            since = new SyncCursor(start, start, new SyncCursor.Position(lastSeq, Long.MAX_VALUE), now);
+        } else if (since.caughtUpAt().isBefore(now.minus(tombstoneRetention))) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Sync cursor expired, run a full sync");
+        }
+        
+        Pageable page = PageRequest.ofSize(pageSize + 1);
+        List<Row<TaskDto>> tasks = rows(taskRepository.findChangedSince(
+                userId, since.tasks().seq(), since.tasks().id(), page), TaskDto.class, TaskDto::getId, TaskDto::getUpdatedAt);
+        List<Row<NoteDto>> notes = rows(noteRepository.findChangedSince(
+                userId, since.notes().seq(), since.notes().id(), page), NoteDto.class, NoteDto::getId, NoteDto::getUpdatedAt);
+        List<Row<Tombstone>> deletions = new ArrayList<>();
+        for (Tombstone deletion : tombstoneRepository.findChangedSince(
+                userId, since.deletions().seq(), since.deletions().id(), page)) {
+            deletions.add(new Row<>(deletion.getSyncSeq(), deletion.getId(), deletion.getDeletedAt(), deletion));
+        }
+        
+        boolean hasMore = tasks.size() > pageSize || notes.size() > pageSize || deletions.size() > pageSize;
+        tasks = trim(tasks);
+        notes = trim(notes);
+        deletions = trim(deletions);
+        
+        SyncCursor next = new SyncCursor(
+                advance(since.tasks(), tasks, settled),
+                advance(since.notes(), notes, settled),
+                advance(since.deletions(), deletions, settled),
+                hasMore ? since.caughtUpAt() : settled);
+        
+        List<Long> deletedTaskIds = new ArrayList<>();
+        List<Long> deletedNoteIds = new ArrayList<>();
+        for (Row<Tombstone> row : deletions) {
+            Tombstone deletion = row.item();
+            (deletion.getItemType() == Tombstone.ItemType.TASK ? deletedTaskIds : deletedNoteIds)
+                    .add(deletion.getItemId());
+        }
+        
+        return new SyncResponse(items(tasks), noteTieringService.fillArchivedText(items(notes)),
+                                deletedTaskIds, deletedNoteIds, next.encode(), hasMore);
+    }
+    
+    @Transactional
+    public void recordDeletions(Long userId, Tombstone.ItemType type, Collection<Long> itemIds) {
+        List<Tombstone> tombstones = new ArrayList<>(itemIds.size());
+        for (Long itemId : itemIds) {
+            tombstones.add(new Tombstone(userId, type, itemId));
+        }
+        tombstoneRepository.saveAll(tombstones);
+    }
+    
+    @Scheduled(fixedDelayString = "${sync.compaction-interval:3600000}")
+    @Transactional
+    public void compactTombstones() {
+        tombstoneRepository.deleteOlderThan(LocalDateTime.now().minus(tombstoneRetention));
+    }
+    
+    private <T> List<T> trim(List<T> rows) {
+        return rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+    }
+    
+    private static <T> List<Row<T>> rows(List<Object[]> result, Class<T> type,
+                                         Function<T, Long> id, Function<T, LocalDateTime> at) {
+        List<Row<T>> rows = new ArrayList<>(result.size());
+        for (Object[] columns : result) {
+            T item = type.cast(columns[1]);
+            rows.add(new Row<>((Long) columns[0], id.apply(item), at.apply(item), item));
+        }
+        return rows;
+    }
+    
+    private static <T> List<T> items(List<Row<T>> rows) {
+        List<T> items = new ArrayList<>(rows.size());
+        for (Row<T> row : rows) {
+            items.add(row.item());
+        }
+        return items;
+    }
+    
+    /**
+     * A stream resumes after the last row it returned that is older than the settle
+     * lag, so newer rows are sent again next time. A full page always moves forward,
+     * or a page made up only of fresh rows would be returned forever.
+     */
+    private <T> SyncCursor.Position advance(SyncCursor.Position from, List<Row<T>> rows, LocalDateTime settled) {
+        SyncCursor.Position next = from;
+        for (Row<T> row : rows) {
+            if (row.at().isAfter(settled)) {
+                break;
+            }
+            next = new SyncCursor.Position(row.seq(), row.id());
+        }
+        if (next.equals(from) && rows.size() == pageSize) {
+            Row<T> last = rows.get(rows.size() - 1);
+            next = new SyncCursor.Position(last.seq(), last.id());
+        }
+        return next;
+    }
+    
+    private record Row<T>(long seq, long id, LocalDateTime at, T item) {
+    }
+}
@@ -0,0 +1,155 @@
+package com.productivity.assistant.service;
+
+import com.productivity.assistant.entity.Note;
+import com.productivity.assistant.entity.Task;
+import com.productivity.assistant.entity.Tombstone;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stamps every task, note and tombstone a transaction writes with a per-user sync
+ * sequence number, drawn as the transaction commits. The number comes from the
+ * user's {@code sync_counters} row, whose lock is then held until commit, so for
+ * any one user sequence order is commit order: once a reader sees a number it
+ * already sees every smaller one. Delta sync pages by this column instead of
+ * {@code updated_at}, which is assigned at flush and can become visible out of order.
+ * <p>
+ * The stamp runs after Hibernate's final flush and writes through the session's
+ * own connection, so it is part of the same commit.
+ */
+@Component
+public class SyncStamper implements PostInsertEventListener, PostUpdateEventListener {
+    
+    private static final int CHUNK_SIZE = 1000;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private final Map<EventSource, Pending> pending = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+    }
+    
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        touched(event.getSession(), event.getEntity());
+    }
+    
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        touched(event.getSession(), event.getEntity());
+    }
+    
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+    
+    private void touched(EventSource session, Object entity) {
+        if (entity instanceof Task task) {
+            pendingFor(session).add(task.getUser().getId(), "tasks", task.getId());
+        } else if (entity instanceof Note note) {
+            pendingFor(session).add(note.getUser().getId(), "notes", note.getId());
+        } else if (entity instanceof Tombstone tombstone) {
+            pendingFor(session).add(tombstone.getUserId(), "tombstones", tombstone.getId());
+        }
+    }
+    
+    private Pending pendingFor(EventSource session) {
+        return pending.computeIfAbsent(session, s -> {
+            Pending created = new Pending();
+            BeforeTransactionCompletionProcess stamp = created::stamp;
+            AfterTransactionCompletionProcess forget = (success, ignored) -> pending.remove(s);
+            s.getActionQueue().registerProcess(stamp);
+            s.getActionQueue().registerProcess(forget);
+            return created;
+        });
+    }
+    
+    /**
+     * Rows one transaction wrote, by user and table. Users are stamped in id order so
+     * two transactions spanning the same users take the counter locks in the same order.
+     */
+    private static class Pending {
+        
+        private final Map<Long, Map<String, Set<Long>>> rows = new TreeMap<>();
+        
+        void add(Long userId, String table, Long id) {
+            rows.computeIfAbsent(userId, u -> new HashMap<>()).computeIfAbsent(table, t -> new HashSet<>()).add(id);
+        }
+        
+        void stamp(SessionImplementor session) {
+            session.doWork(connection -> {
+                for (Map.Entry<Long, Map<String, Set<Long>>> user : rows.entrySet()) {
+                    long seq = next(connection, user.getKey());
+                    for (Map.Entry<String, Set<Long>> table : user.getValue().entrySet()) {
+                        stampRows(connection, table.getKey(), seq, new ArrayList<>(table.getValue()));
+                    }
+                }
+            });
+        }
+    }
+    
+    private static long next(Connection connection, long userId) throws SQLException {
+        try (PreparedStatement increment = connection.prepareStatement(
+                "INSERT INTO sync_counters (user_id, last_seq) VALUES (?, LAST_INSERT_ID(1)) " +
+                "ON DUPLICATE KEY UPDATE last_seq = LAST_INSERT_ID(last_seq + 1)")) {
+            increment.setLong(1, userId);
+            increment.executeUpdate();
+        }
+        try (Statement select = connection.createStatement();
+             ResultSet result = select.executeQuery("SELECT LAST_INSERT_ID()")) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+    
+    private static void stampRows(Connection connection, String table, long seq, List<Long> ids) throws SQLException {
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE " + table + " SET sync_seq = ? WHERE id IN (" + placeholders + ")")) {
+                update.setLong(1, seq);
+                for (int i = 0; i < chunk.size(); i++) {
+                    update.setLong(i + 2, chunk.get(i));
+                }
+                update.executeUpdate();
+            }
+        }
+    }
+}
@@ -1,20 +1,39 @@
 package com.productivity.assistant.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.productivity.assistant.dto.BatchRequest;
+import com.productivity.assistant.dto.BatchResult;
+import com.productivity.assistant.dto.CursorPage;
+import com.productivity.assistant.dto.KeysetCursor;
 import com.productivity.assistant.dto.TaskDto;
+import com.productivity.assistant.dto.TaskFilter;
 import com.productivity.assistant.entity.Note;
 import com.productivity.assistant.entity.Task;
+import com.productivity.assistant.entity.Tombstone;
 import com.productivity.assistant.entity.User;
+import com.productivity.assistant.mapper.TaskMapper;
 import com.productivity.assistant.repository.NoteRepository;
 import com.productivity.assistant.repository.TaskRepository;
 import com.productivity.assistant.repository.UserRepository;
-import org.springframework.beans.BeanUtils;
+import com.productivity.assistant.search.SearchIndexService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,126 +49,292 @@ public class TaskService {
     @Autowired
     private NoteRepository noteRepository;
     
-    public TaskDto createTask(TaskDto taskDto, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    @Autowired
+    private SearchIndexService searchIndexService;
+    
+    @Autowired
+    private StatsService statsService;
+    
+    @Autowired
+    private CollectionVersionService collectionVersions;
+    
+    @Autowired
+    private SyncService syncService;
+    
+    @Autowired
+    private JsonMergePatch jsonMergePatch;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+    
+    @Value("${batch.max-operations:10000}")
+    private int maxBatchOperations;
+    
+    public TaskDto createTask(TaskDto taskDto, Long userId) {
+        User user = userRepository.getReferenceById(userId);
         
-        Task task = new Task();
-        BeanUtils.copyProperties(taskDto, task, "id", "createdAt", "updatedAt", "completedAt");
+        Task task = TaskMapper.toEntity(taskDto);
         task.setUser(user);
         
         if (taskDto.getRelatedNoteId() != null) {
-            Note note = noteRepository.findById(taskDto.getRelatedNoteId())
+            Note note = noteRepository.findByIdAndUserId(taskDto.getRelatedNoteId(), userId)
                     .orElseThrow(() -> new RuntimeException("Related note not found"));
-            if (!note.getUser().getId().equals(user.getId())) {
-                throw new RuntimeException("Unauthorized to link to this note");
-            }
             task.setRelatedNote(note);
         }
         
         Task savedTask = taskRepository.save(task);
-        return convertToDto(savedTask);
+        searchIndexService.indexTask(userId, savedTask);
+        statsService.taskChanged(userId, null, null, savedTask.getStatus(), savedTask.getCompletedAt());
+        collectionVersions.changed(CollectionVersionService.TASKS, userId);
+        return TaskMapper.toDto(savedTask);
     }
     
-    public TaskDto updateTask(Long taskId, TaskDto taskDto, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        
-        Task task = taskRepository.findById(taskId)
+    public TaskDto updateTask(Long taskId, TaskDto taskDto, Long userId) {
+        Task task = taskRepository.findByIdAndUserId(taskId, userId)
                 .orElseThrow(() -> new RuntimeException("Task not found"));
-        
-        if (!task.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Unauthorized to update this task");
+        if (taskDto.getVersion() != null && taskDto.getVersion() != task.getVersion()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Version mismatch");
         }
         
-        task.setTitle(taskDto.getTitle());
-        task.setDescription(taskDto.getDescription());
-        task.setStatus(taskDto.getStatus());
-        task.setPriority(taskDto.getPriority());
-        task.setDueDate(taskDto.getDueDate());
+        return saveUpdate(task, taskDto, userId);
+    }
+    
+    /**
+     * Applies a JSON merge patch. Only members present in the patch change, and with
+     * dynamic updates only the columns whose values actually changed are written.
+     */
+    public TaskDto patchTask(Long taskId, JsonNode patch, Long ifMatch, Long userId) {
+        Task task = taskRepository.findByIdAndUserId(taskId, userId)
+                .orElseThrow(() -> new RuntimeException("Task not found"));
+        jsonMergePatch.checkVersion(task.getVersion(), ifMatch, patch);
         
-        if (taskDto.getStatus() == Task.TaskStatus.COMPLETED && task.getCompletedAt() == null) {
-            task.setCompletedAt(LocalDateTime.now());
-        }
+        TaskDto patched = jsonMergePatch.apply(TaskMapper.toDto(task), patch);
+        return saveUpdate(task, patched, userId);
+    }
+    
+    private TaskDto saveUpdate(Task task, TaskDto taskDto, Long userId) {
+        Task.TaskStatus oldStatus = task.getStatus();
+        LocalDateTime oldCompletedAt = task.getCompletedAt();
+        applyUpdate(task, taskDto);
         
-        Task updatedTask = taskRepository.save(task);
-        return convertToDto(updatedTask);
+        // Flushing here surfaces a concurrent write as a conflict and returns the new version.
+        Task updatedTask;
+        try {
+            updatedTask = taskRepository.saveAndFlush(task);
+        } catch (OptimisticLockingFailureException ex) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Task was modified concurrently");
+        }
+        searchIndexService.indexTask(userId, updatedTask);
+        statsService.taskChanged(userId, oldStatus, oldCompletedAt, updatedTask.getStatus(), updatedTask.getCompletedAt());
+        collectionVersions.changed(CollectionVersionService.TASKS, userId);
+        return TaskMapper.toDto(updatedTask);
+    }
+    
+    public void deleteTask(Long taskId, Long userId) {
+        if (taskRepository.deleteByIdAndUserId(taskId, userId) == 0) {
+            throw new RuntimeException("Task not found");
+        }
+        searchIndexService.removeTask(userId, taskId);
+        syncService.recordDeletions(userId, Tombstone.ItemType.TASK, List.of(taskId));
+        statsService.invalidate(userId);
+        collectionVersions.changed(CollectionVersionService.TASKS, userId);
     }
     
-    public void deleteTask(Long taskId, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    /**
+     * Applies creates, updates and deletes in one transaction. Rows are written through
+     * JDBC batches and the persistence context is cleared after every batch, so memory
+     * stays flat for large requests.
+     */
+    public BatchResult<TaskDto> applyBatch(BatchRequest<TaskDto> batch, Long userId) {
+        if (batch.size() > maxBatchOperations) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Batch exceeds " + maxBatchOperations + " operations");
+        }
         
-        Task task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new RuntimeException("Task not found"));
+        List<TaskDto> created = batch.getCreate() != null ? createTasks(batch.getCreate(), userId) : new ArrayList<>();
+        List<TaskDto> updated = new ArrayList<>();
+        List<Long> notFound = new ArrayList<>();
+        List<Long> conflicts = new ArrayList<>();
+        int deleted = 0;
         
-        if (!task.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Unauthorized to delete this task");
+        if (batch.getUpdate() != null) {
+            for (List<TaskDto> chunk : Batches.chunks(batch.getUpdate(), batchSize)) {
+                Map<Long, TaskDto> changes = chunk.stream()
+                        .filter(dto -> dto.getId() != null)
+                        .collect(Collectors.toMap(TaskDto::getId, Function.identity(), (a, b) -> b));
+                Map<Long, Task> tasks = taskRepository.findByUserIdAndIdIn(userId, changes.keySet()).stream()
+                        .collect(Collectors.toMap(Task::getId, Function.identity()));
+                
+                for (Map.Entry<Long, TaskDto> change : changes.entrySet()) {
+                    Task task = tasks.get(change.getKey());
+                    if (task == null) {
+                        notFound.add(change.getKey());
+                        continue;
+                    }
+                    Long version = change.getValue().getVersion();
+                    if (version != null && version != task.getVersion()) {
+                        conflicts.add(task.getId());
+                        tasks.remove(task.getId());
+                        continue;
+                    }
+                    applyUpdate(task, change.getValue());
+                }
+                flushAndClear();
+                for (Task task : tasks.values()) {
+                    searchIndexService.indexTask(userId, task);
+                    updated.add(TaskMapper.toDto(task));
+                }
+            }
         }
         
-        taskRepository.delete(task);
+        if (batch.getDelete() != null) {
+            for (List<Long> chunk : Batches.chunks(batch.getDelete(), batchSize)) {
+                List<Long> owned = taskRepository.findIdsByUserIdAndIdIn(userId, chunk);
+                if (owned.isEmpty()) {
+                    continue;
+                }
+                deleted += taskRepository.deleteByUserIdAndIdIn(userId, owned);
+                owned.forEach(id -> searchIndexService.removeTask(userId, id));
+                syncService.recordDeletions(userId, Tombstone.ItemType.TASK, owned);
+            }
+        }
+        
+        if (!updated.isEmpty() || deleted > 0) {
+            statsService.invalidate(userId);
+        }
+        collectionVersions.changed(CollectionVersionService.TASKS, userId);
+        return new BatchResult<>(created, updated, deleted, notFound, conflicts);
     }
     
-    public TaskDto getTaskById(Long taskId, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    /**
+     * Creates pending, medium-priority tasks flagged as AI-generated from a list of titles.
+     */
+    public List<TaskDto> createAiTasks(List<String> titles, Long userId) {
+        List<TaskDto> taskDtos = new ArrayList<>();
+        for (String title : titles) {
+            TaskDto taskDto = new TaskDto();
+            taskDto.setTitle(title);
+            taskDto.setStatus(Task.TaskStatus.PENDING);
+            taskDto.setPriority(Task.TaskPriority.MEDIUM);
+            taskDto.setAiGenerated(true);
+            taskDtos.add(taskDto);
+        }
+        return createTasks(taskDtos, userId);
+    }
+    
+    public List<TaskDto> createTasks(List<TaskDto> taskDtos, Long userId) {
+        User user = userRepository.getReferenceById(userId);
         
-        Task task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new RuntimeException("Task not found"));
+        Set<Long> noteIds = taskDtos.stream()
+                .map(TaskDto::getRelatedNoteId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> ownedNoteIds = noteIds.isEmpty() ? Set.of() : noteRepository.findByUserIdAndIdIn(userId, noteIds).stream()
+                .map(Note::getId)
+                .collect(Collectors.toSet());
+        if (ownedNoteIds.size() != noteIds.size()) {
+            throw new RuntimeException("Related note not found");
+        }
         
-        if (!task.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Unauthorized to view this task");
+        List<TaskDto> created = new ArrayList<>(taskDtos.size());
+        for (List<TaskDto> chunk : Batches.chunks(taskDtos, batchSize)) {
+            List<Task> tasks = new ArrayList<>(chunk.size());
+            for (TaskDto taskDto : chunk) {
+                Task task = TaskMapper.toEntity(taskDto);
+                task.setUser(user);
+                if (taskDto.getRelatedNoteId() != null) {
+                    task.setRelatedNote(noteRepository.getReferenceById(taskDto.getRelatedNoteId()));
+                }
+                tasks.add(task);
+            }
+            taskRepository.saveAll(tasks);
+            flushAndClear();
+            
+            for (Task task : tasks) {
+                searchIndexService.indexTask(userId, task);
+                statsService.taskChanged(userId, null, null, task.getStatus(), task.getCompletedAt());
+                created.add(TaskMapper.toDto(task));
+            }
         }
+        collectionVersions.changed(CollectionVersionService.TASKS, userId);
+        return created;
+    }
+    
+    @Transactional(readOnly = true)
+    public TaskDto getTaskById(Long taskId, Long userId) {
+        Task task = taskRepository.findByIdAndUserId(taskId, userId)
+                .orElseThrow(() -> new RuntimeException("Task not found"));
         
-        return convertToDto(task);
+        return TaskMapper.toDto(task);
     }
     
-    public List<TaskDto> getUserTasks(String username, Task.TaskStatus status, Task.TaskPriority priority) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    private void applyUpdate(Task task, TaskDto taskDto) {
+        task.setTitle(taskDto.getTitle());
+        task.setDescription(taskDto.getDescription());
+        task.setStatus(taskDto.getStatus());
+        task.setPriority(taskDto.getPriority());
+        task.setDueDate(taskDto.getDueDate());
         
-        List<Task> tasks;
-        if (status != null) {
-            tasks = taskRepository.findByUserIdAndStatusOrderByDueDateAsc(user.getId(), status);
-        } else if (priority != null) {
-            tasks = taskRepository.findByUserIdAndPriorityOrderByCreatedAtDesc(user.getId(), priority);
-        } else {
-            tasks = taskRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
+        if (taskDto.getStatus() == Task.TaskStatus.COMPLETED && task.getCompletedAt() == null) {
+            task.setCompletedAt(LocalDateTime.now());
         }
+    }
+    
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+    
+    @Transactional(readOnly = true)
+    public List<TaskDto> getUserTasks(Long userId, TaskFilter filter) {
+        return getUserTasks(userId, filter, true);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<TaskDto> getUserTasks(Long userId, TaskFilter filter, boolean includeText) {
+        Sort sort = filter != null && filter.hasStatus()
+                ? Sort.by(Sort.Direction.ASC, "dueDate")
+                : Sort.by(Sort.Direction.DESC, "createdAt", "id");
+        return taskRepository.findByFilter(userId, filter, sort, includeText);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<TaskDto> getUserTasksPage(Long userId, TaskFilter filter, String cursor, Integer limit,
+                                                boolean includeText) {
+        int pageSize = KeysetCursor.pageSize(limit);
+        List<TaskDto> tasks = taskRepository.findPageByFilter(userId, filter, KeysetCursor.decode(cursor),
+                                                              pageSize + 1, includeText);
         
-        return tasks.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return CursorPage.of(tasks, pageSize, Function.identity(),
+                             t -> new KeysetCursor(t.getCreatedAt(), t.getId()));
     }
     
-    public List<TaskDto> searchTasks(String username, String searchTerm) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    @Transactional(readOnly = true)
+    public List<TaskDto> searchTasks(Long userId, String searchTerm, int limit) {
+        List<Long> ids = searchIndexService.searchTasks(userId, searchTerm, limit);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
         
-        List<Task> tasks = taskRepository.searchTasks(user.getId(), searchTerm);
+        Map<Long, Task> tasks = taskRepository.findByUserIdAndIdIn(userId, ids).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
         
-        return tasks.stream()
-                .map(this::convertToDto)
+        return ids.stream()
+                .map(tasks::get)
+                .filter(Objects::nonNull)
+                .map(TaskMapper::toDto)
                 .collect(Collectors.toList());
     }
     
-    public List<TaskDto> getOverdueTasks(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        
-        List<Task> tasks = taskRepository.findOverdueTasks(user.getId(), LocalDateTime.now());
+    @Transactional(readOnly = true)
+    public List<TaskDto> getOverdueTasks(Long userId) {
+        List<Task> tasks = taskRepository.findOverdueTasks(userId, LocalDateTime.now());
         
         return tasks.stream()
-                .map(this::convertToDto)
+                .map(TaskMapper::toDto)
                 .collect(Collectors.toList());
     }
-    
-    private TaskDto convertToDto(Task task) {
-        TaskDto dto = new TaskDto();
-        BeanUtils.copyProperties(task, dto);
-        if (task.getRelatedNote() != null) {
-            dto.setRelatedNoteId(task.getRelatedNote().getId());
-        }
-        return dto;
-    }
 }
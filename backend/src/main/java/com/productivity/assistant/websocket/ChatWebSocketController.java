@@ -1,20 +1,23 @@
 package com.productivity.assistant.websocket;
 
+import com.productivity.assistant.ai.AIExecutor;
 import com.productivity.assistant.ai.AIService;
+import com.productivity.assistant.ai.ChatContext;
+import com.productivity.assistant.ai.ChatContextWindow;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.security.Principal;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.UUID;
 
 @Controller
 public class ChatWebSocketController {
@@ -22,42 +25,72 @@ public class ChatWebSocketController {
     @Autowired
     private AIService aiService;
     
+    @Autowired
+    private AIExecutor aiExecutor;
+    
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
     
-    private final ConcurrentHashMap<String, List<String>> userConversations = new ConcurrentHashMap<>();
+    @Autowired
+    private ChatContextWindow chatContextWindow;
+    
+    @Value("${ai.stream.idle-timeout:30000}")
+    private long streamIdleTimeout;
     
+    /**
+     * Streams the reply to {@code /user/queue/chat}: a {@code PARTIAL} frame per fragment
+     * as the model produces it, then one {@code CHAT} frame with the full text. All
+     * frames of a reply share a message id. The stream holds an AI pool slot, and an
+     * {@code ERROR} frame says so when the pool is full.
+     */
     @MessageMapping("/chat.send")
-    @SendToUser("/queue/chat")
-    public ChatResponse handleChatMessage(ChatMessage message, Principal principal) {
+    public void handleChatMessage(ChatMessage message, Principal principal) {
         String username = principal.getName();
+        String messageId = UUID.randomUUID().toString();
         
-        List<String> history = userConversations.computeIfAbsent(username, k -> new ArrayList<>());
-        
-        history.add("User: " + message.getContent());
-        
-        String aiResponse = aiService.chatWithAssistant(message.getContent(), history);
-        
-        history.add("Assistant: " + aiResponse);
-        
-        if (history.size() > 20) {
-            history.subList(0, history.size() - 20).clear();
+        ChatContext context;
+        try {
+            context = chatContextWindow.begin(username, message.getContent());
+        } catch (ResponseStatusException ex) {
+            send(username, messageId, ex.getReason(), ChatResponse.MessageType.ERROR);
+            return;
         }
         
+        StringBuilder aiResponse = new StringBuilder();
+        aiExecutor.stream(() -> aiService.streamChat(message.getContent(), context))
+                .timeout(Duration.ofMillis(streamIdleTimeout))
+                .subscribe(
+                        fragment -> {
+                            aiResponse.append(fragment);
+                            send(username, messageId, fragment, ChatResponse.MessageType.PARTIAL);
+                        },
+                        error -> send(username, messageId, error instanceof ResponseStatusException ex
+                                              ? ex.getReason()
+                                              : "Sorry, I encountered an error. Please try again.",
+                                      ChatResponse.MessageType.ERROR),
+                        () -> {
+                            chatContextWindow.record(username, message.getContent(), aiResponse.toString());
+                            
+                            send(username, messageId, aiResponse.toString(), ChatResponse.MessageType.CHAT);
+                        });
+    }
+    
+    private void send(String username, String messageId, String content, ChatResponse.MessageType type) {
         ChatResponse response = new ChatResponse();
-        response.setContent(aiResponse);
+        response.setMessageId(messageId);
+        response.setContent(content);
         response.setSender("AI Assistant");
         response.setTimestamp(LocalDateTime.now());
-        response.setType(ChatResponse.MessageType.CHAT);
+        response.setType(type);
         
-        return response;
+        messagingTemplate.convertAndSendToUser(username, "/queue/chat", response);
     }
     
     @MessageMapping("/chat.clear")
     @SendToUser("/queue/chat")
     public ChatResponse clearHistory(Principal principal) {
         String username = principal.getName();
-        userConversations.remove(username);
+        chatContextWindow.clear(username);
         
         ChatResponse response = new ChatResponse();
         response.setContent("Conversation history cleared.");
@@ -77,13 +110,14 @@ public class ChatWebSocketController {
     
     @Data
     public static class ChatResponse {
+        private String messageId;
         private String content;
         private String sender;
         private LocalDateTime timestamp;
         private MessageType type;
         
         public enum MessageType {
-            CHAT, SYSTEM, ERROR
+            CHAT, PARTIAL, SYSTEM, ERROR
         }
     }
 }
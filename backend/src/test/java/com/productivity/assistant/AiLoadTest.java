@@ -0,0 +1,123 @@
+package com.productivity.assistant;
+
+import com.productivity.assistant.ai.StubChatModel;
+import com.productivity.assistant.entity.User;
+import com.productivity.assistant.repository.UserRepository;
+import com.productivity.assistant.security.JwtTokenProvider;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sends 128 concurrent summarize requests to a stub model that takes 200 ms per call,
+ * for each combination of request threads (8 platform threads or virtual threads)
+ * and {@code ai.executor.threads}, and prints the wall time and the most calls the
+ * model saw at once. The request threads never bound concurrency; the AI pool does,
+ * so the time falls in proportion as the pool grows.
+ * <p>
+ * Tagged {@code benchmark}; run with {@code mvn test -DexcludedGroups= -Dgroups=benchmark}.
+ */
+@Tag("benchmark")
+class AiLoadTest {
+    
+    private static final int REQUESTS = 128;
+    
+    private static final long LATENCY_MILLIS = 200;
+    
+    private static final int TOMCAT_THREADS = 8;
+    
+    @Test
+    void concurrencyFollowsTheAiPoolNotTheRequestThreads() throws Exception {
+        System.out.printf("%-10s %12s %10s %16s%n", "threads", "ai executor", "wall ms", "max in flight");
+        for (boolean virtual : new boolean[]{false, true}) {
+            long previous = Long.MAX_VALUE;
+            for (int executorThreads : new int[]{4, 16, 64}) {
+                Result result = run(virtual, executorThreads);
+                System.out.printf("%-10s %12d %10d %16d%n", virtual ? "virtual" : "platform-" + TOMCAT_THREADS,
+                                  executorThreads, result.wallMillis(), result.maxInFlight());
+                
+                assertThat(result.statuses()).hasSize(REQUESTS).containsOnly(200);
+                assertThat(result.maxInFlight()).isEqualTo(executorThreads);
+                // Ideal is ceil(REQUESTS / pool) round trips of LATENCY_MILLIS each.
+                long ideal = (long) Math.ceil((double) REQUESTS / executorThreads) * LATENCY_MILLIS;
+                assertThat(result.wallMillis()).isBetween(ideal, ideal * 2 + 1000);
+                assertThat(result.wallMillis()).isLessThan(previous);
+                previous = result.wallMillis();
+            }
+        }
+    }
+    
+    private Result run(boolean virtual, int executorThreads) throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.datasource.url", MySqlIntegrationTest.MYSQL.getJdbcUrl());
+        properties.put("spring.datasource.username", MySqlIntegrationTest.MYSQL.getUsername());
+        properties.put("spring.datasource.password", MySqlIntegrationTest.MYSQL.getPassword());
+        properties.put("ai.jobs.poll-interval", 86400000);
+        properties.put("ai.cache.enabled", false);
+        properties.put("ai.executor.threads", executorThreads);
+        properties.put("ai.executor.queue-capacity", REQUESTS);
+        properties.put("stub-model.latency", LATENCY_MILLIS);
+        properties.put("spring.threads.virtual.enabled", virtual);
+        properties.put("server.tomcat.threads.max", TOMCAT_THREADS);
+        properties.put("server.tomcat.threads.min-spare", TOMCAT_THREADS);
+        
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                AssistantApplication.class, StubChatModel.Config.class).properties(properties).run()) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            String token = token(context);
+            StubChatModel model = context.getBean(StubChatModel.class);
+            model.reset();
+            
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            List<Integer> statuses = new ArrayList<>();
+            long start = System.nanoTime();
+            try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<Integer>> responses = new ArrayList<>();
+                for (int i = 0; i < REQUESTS; i++) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/ai/summarize"))
+                            .header("Authorization", "Bearer " + token)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString("{\"text\": \"load test " + i + "\"}"))
+                            .build();
+                    responses.add(callers.submit(
+                            () -> client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()));
+                }
+                for (Future<Integer> response : responses) {
+                    statuses.add(response.get());
+                }
+            }
+            long wallMillis = (System.nanoTime() - start) / 1_000_000;
+            return new Result(statuses, wallMillis, model.maxInFlight());
+        }
+    }
+    
+    private static String token(ConfigurableApplicationContext context) {
+        String name = "load-" + UUID.randomUUID();
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("{noop}password");
+        user = context.getBean(UserRepository.class).save(user);
+        return context.getBean(JwtTokenProvider.class).generateToken(user.getId(), user.getUsername());
+    }
+    
+    private record Result(List<Integer> statuses, long wallMillis, int maxInFlight) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.productivity.assistant;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Runs one JMH benchmark class from a {@code benchmark}-tagged test, with the GC
+ * profiler attached so bytes allocated per operation are reported next to
+ * throughput. Forks, warm-up and measurement come from the benchmark class; JMH
+ * prints its usual report, and the scores are returned by method name for asserts.
+ */
+public final class JmhRunner {
+    
+    private JmhRunner() {
+    }
+    
+    public static Map<String, Score> run(Class<?> benchmark) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(Pattern.quote(benchmark.getName()) + "\\.")
+                .addProfiler(GCProfiler.class)
+                .build();
+        
+        Map<String, Score> scores = new HashMap<>();
+        for (RunResult result : new Runner(options).run()) {
+            String name = result.getParams().getBenchmark();
+            scores.put(name.substring(name.lastIndexOf('.') + 1),
+                       new Score(result.getPrimaryResult().getScore(), allocationPerOp(result)));
+        }
+        return scores;
+    }
+    
+    private static double allocationPerOp(RunResult result) {
+        for (Map.Entry<String, Result> secondary : result.getSecondaryResults().entrySet()) {
+            if (secondary.getKey().endsWith("gc.alloc.rate.norm")) {
+                return secondary.getValue().getScore();
+            }
+        }
+        return Double.NaN;
+    }
+    
+    /**
+     * Throughput in the benchmark's output unit and bytes allocated per operation.
+     */
+    public record Score(double throughput, double bytesPerOp) {
+    }
+}
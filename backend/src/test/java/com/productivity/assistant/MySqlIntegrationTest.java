@@ -0,0 +1,49 @@
+package com.productivity.assistant;
+
+import com.productivity.assistant.entity.User;
+import com.productivity.assistant.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.util.UUID;
+
+/**
+ * Boots the application against a MySQL 8 container shared by every test class in
+ * the run. Each test creates its own user, so tests do not see each other's rows.
+ * The AI job worker polls once at startup and then stays out of the way, so jobs a
+ * test queues are never sent to the model.
+ */
+@SpringBootTest(properties = "ai.jobs.poll-interval=86400000")
+public abstract class MySqlIntegrationTest {
+    
+    protected static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("ai_assistant")
+            .withUrlParam("serverTimezone", "UTC")
+            .withUrlParam("rewriteBatchedStatements", "true");
+    
+    static {
+        MYSQL.start();
+    }
+    
+    @Autowired
+    protected UserRepository userRepository;
+    
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+    }
+    
+    protected User createUser() {
+        String name = "user-" + UUID.randomUUID();
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("{noop}password");
+        return userRepository.save(user);
+    }
+}
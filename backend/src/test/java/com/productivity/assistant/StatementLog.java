@@ -0,0 +1,43 @@
+package com.productivity.assistant;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Collects the SQL Hibernate prepares on the recording thread, so scheduled jobs
+ * running alongside a test are not counted. Enabled with
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}.
+ */
+public class StatementLog implements StatementInspector {
+    
+    public static final String PROPERTY = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+            + "com.productivity.assistant.StatementLog";
+    
+    private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+    
+    public static void start() {
+        STATEMENTS.set(new ArrayList<>());
+    }
+    
+    /**
+     * Stops recording and returns the statements seen since {@link #start}, trimmed
+     * and lower-cased.
+     */
+    public static List<String> stop() {
+        List<String> statements = STATEMENTS.get();
+        STATEMENTS.remove();
+        return statements != null ? statements : List.of();
+    }
+    
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.add(sql.strip().toLowerCase(Locale.ROOT));
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,138 @@
+package com.productivity.assistant;
+
+import com.productivity.assistant.ai.StubChatModel;
+import com.productivity.assistant.dto.NoteDto;
+import com.productivity.assistant.entity.User;
+import com.productivity.assistant.security.JwtTokenProvider;
+import com.productivity.assistant.service.NoteService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Serves concurrent authenticated requests with virtual threads enabled while JFR
+ * records {@code jdk.VirtualThreadPinned}. The requests go through JWT verification,
+ * the principal lookup and JDBC reads on a deliberately small pool, so virtual
+ * threads park on the connection pool and on socket reads; any of those parks made
+ * while holding a monitor would be recorded as pinning.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "ai.jobs.poll-interval=86400000",
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "stub-model.latency=50"
+})
+@Import(StubChatModel.Config.class)
+class VirtualThreadPinningTest extends MySqlIntegrationTest {
+    
+    private static final int REQUESTS = 200;
+    
+    @LocalServerPort
+    private int port;
+    
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    
+    @Autowired
+    private NoteService noteService;
+    
+    @Test
+    void jwtAndJdbcPathsDoNotPinVirtualThreads() throws Exception {
+        User user = createUser();
+        for (int i = 0; i < 20; i++) {
+            NoteDto note = new NoteDto();
+            note.setTitle("Note " + i);
+            note.setContent("body " + i);
+            noteService.createNote(note, user.getId());
+        }
+        String token = jwtTokenProvider.generateToken(user.getId(), user.getUsername());
+        
+        List<RecordedEvent> pinned;
+        List<Integer> statuses = new ArrayList<>();
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withoutThreshold().withStackTrace();
+            recording.start();
+            
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<Integer>> responses = new ArrayList<>();
+                for (int i = 0; i < REQUESTS; i++) {
+                    HttpRequest request = request(i, token);
+                    responses.add(requests.submit(
+                            () -> client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()));
+                }
+                for (Future<Integer> response : responses) {
+                    statuses.add(response.get());
+                }
+            }
+            
+            recording.stop();
+            pinned = pinnedEvents(recording);
+        }
+        
+        assertThat(statuses).hasSize(REQUESTS).containsOnly(200);
+        assertThat(pinned).as(() -> describe(pinned)).isEmpty();
+    }
+    
+    private HttpRequest request(int i, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .header("Authorization", "Bearer " + token);
+        return switch (i % 3) {
+            case 0 -> request.uri(uri("/api/notes")).GET().build();
+            case 1 -> request.uri(uri("/api/tasks")).GET().build();
+            default -> request.uri(uri("/api/ai/summarize"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"text\": \"pinning check " + i + "\"}"))
+                    .build();
+        };
+    }
+    
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+    
+    private static List<RecordedEvent> pinnedEvents(Recording recording) throws IOException {
+        Path file = Files.createTempFile("pinning", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals("jdk.VirtualThreadPinned"))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    private static String describe(List<RecordedEvent> events) {
+        return events.stream()
+                .map(event -> event.getStackTrace() == null ? "(no stack trace)" : event.getStackTrace().getFrames()
+                        .stream()
+                        .limit(12)
+                        .map(RecordedFrame::getMethod)
+                        .map(method -> method.getType().getName() + "." + method.getName())
+                        .collect(Collectors.joining("\n  at ")))
+                .collect(Collectors.joining("\n\n", "Pinned virtual threads:\n", ""));
+    }
+}
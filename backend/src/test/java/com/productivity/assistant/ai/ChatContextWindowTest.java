@@ -0,0 +1,71 @@
+package com.productivity.assistant.ai;
+
+import com.productivity.assistant.MySqlIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@Import(StubChatModel.Config.class)
+@TestPropertySource(properties = {"ai.chat.context-tokens=100", "ai.chat.max-message-tokens=20"})
+class ChatContextWindowTest extends MySqlIntegrationTest {
+    
+    private static final String SUMMARY = "The assistant gave a long answer.";
+    
+    @Autowired
+    private ChatContextWindow chatContextWindow;
+    
+    @Autowired
+    private ConversationStore conversationStore;
+    
+    @Autowired
+    private StubChatModel stubChatModel;
+    
+    @Test
+    void oversizedLatestTurnIsCutAndFoldedIntoTheSummary() {
+        String username = "chat-" + UUID.randomUUID();
+        String reply = "Start of the reply. " + "filler ".repeat(100) + "TAIL-MARKER";
+        
+        AtomicReference<String> summarized = new AtomicReference<>();
+        CountDownLatch release = new CountDownLatch(1);
+        stubChatModel.respondWith(prompt -> {
+            summarized.set(prompt);
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return SUMMARY;
+        });
+        
+        chatContextWindow.record(username, "hi", reply);
+        
+        // While the summary is being written the prompt shows the head of the reply,
+        // and both turns count as omitted, the cut one included.
+        ChatContext during = chatContextWindow.begin(username, "next");
+        assertThat(during.turns()).singleElement().satisfies(turn -> {
+            assertThat(turn).startsWith("Assistant: Start of the reply.");
+            assertThat(turn).doesNotContain("TAIL-MARKER");
+        });
+        assertThat(during.omittedTurns()).isEqualTo(2);
+        
+        release.countDown();
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> SUMMARY.equals(conversationStore.update(username, Conversation::summary)));
+        
+        assertThat(summarized.get()).contains("TAIL-MARKER");
+        ChatContext after = chatContextWindow.begin(username, "next");
+        assertThat(after.summary()).isEqualTo(SUMMARY);
+        assertThat(after.turns()).isEmpty();
+        assertThat(after.omittedTurns()).isZero();
+    }
+}
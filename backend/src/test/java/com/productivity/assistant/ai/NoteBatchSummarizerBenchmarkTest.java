@@ -0,0 +1,101 @@
+package com.productivity.assistant.ai;
+
+import com.productivity.assistant.MySqlIntegrationTest;
+import com.productivity.assistant.dto.BatchSummaryResult;
+import com.productivity.assistant.dto.NoteDto;
+import com.productivity.assistant.service.NoteService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Notes summarized per minute against a local stub model that takes 300 ms per call,
+ * one note per call versus notes packed into the token budget. The stub answers
+ * batch prompts with the JSON array the real model is asked for.
+ * <p>
+ * Tagged {@code benchmark}; run with {@code mvn test -DexcludedGroups= -Dgroups=benchmark}.
+ */
+@Tag("benchmark")
+@Import(StubChatModel.Config.class)
+@TestPropertySource(properties = {"stub-model.latency=300", "ai.cache.enabled=false"})
+class NoteBatchSummarizerBenchmarkTest extends MySqlIntegrationTest {
+    
+    private static final int NOTES = 60;
+    
+    private static final Pattern BATCH_ENTRY = Pattern.compile("=== Note (\\d+) ===");
+    
+    @Autowired
+    private NoteBatchSummarizer noteBatchSummarizer;
+    
+    @Autowired
+    private NoteService noteService;
+    
+    @Autowired
+    private StubChatModel stubChatModel;
+    
+    @Test
+    void notesPerMinute() {
+        stubChatModel.respondWith(NoteBatchSummarizerBenchmarkTest::answer);
+        int maxNotes = (int) ReflectionTestUtils.getField(noteBatchSummarizer, "maxNotesPerBatch");
+        // Unmeasured packed run, so the first measured run does not pay for JIT and pool warm-up.
+        run("warm-up");
+        
+        BatchSummaryResult single;
+        ReflectionTestUtils.setField(noteBatchSummarizer, "maxNotesPerBatch", 1);
+        try {
+            single = run("one note per call");
+        } finally {
+            ReflectionTestUtils.setField(noteBatchSummarizer, "maxNotesPerBatch", maxNotes);
+        }
+        BatchSummaryResult packed = run("packed, up to " + maxNotes + " per call");
+        
+        assertThat(single.getModelCalls()).isEqualTo(NOTES);
+        assertThat(packed.getModelCalls()).isLessThan(NOTES);
+        assertThat(packed.getElapsedMs()).isLessThan(single.getElapsedMs());
+    }
+    
+    private BatchSummaryResult run(String name) {
+        Long userId = createUser().getId();
+        List<NoteDto> notes = new ArrayList<>(NOTES);
+        for (int i = 0; i < NOTES; i++) {
+            NoteDto note = new NoteDto();
+            note.setTitle("Note " + i);
+            note.setContent(("Meeting notes " + i + ": agreed the launch plan, owners and dates for each action item. ")
+                                    .repeat(25));
+            notes.add(note);
+        }
+        List<Long> ids = noteService.createNotes(notes, userId).stream().map(NoteDto::getId).toList();
+        
+        BatchSummaryResult result = noteBatchSummarizer.summarize(ids, userId);
+        System.out.printf("%-28s %3d notes %3d model calls %7d ms %8.0f notes/min%n", name, result.getSummarized(),
+                          result.getModelCalls(), result.getElapsedMs(),
+                          result.getSummarized() * 60_000.0 / result.getElapsedMs());
+        assertThat(result.getSummarized()).isEqualTo(NOTES);
+        return result;
+    }
+    
+    private static String answer(String prompt) {
+        Matcher entries = BATCH_ENTRY.matcher(prompt);
+        List<String> ids = new ArrayList<>();
+        while (entries.find()) {
+            ids.add(entries.group(1));
+        }
+        if (ids.isEmpty()) {
+            return "Summary of one note.";
+        }
+        return ids.stream()
+                .map(id -> "{\"id\": " + id + ", \"summary\": \"Summary of note " + id + ".\"}")
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+}
@@ -0,0 +1,98 @@
+package com.productivity.assistant.ai;
+
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.ChatOptionsBuilder;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Local model for tests and benchmarks: answers every prompt after a fixed latency,
+ * with text from a replaceable responder, and counts the calls it receives. Import
+ * {@link Config} to have the application's {@code ChatClient} use it instead of the
+ * configured provider.
+ */
+public class StubChatModel implements ChatModel {
+    
+    private final long latencyMillis;
+    
+    private volatile Function<String, String> responder = prompt -> "Stub reply to " + prompt.length() + " characters";
+    
+    private final AtomicInteger calls = new AtomicInteger();
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    
+    public StubChatModel(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+    
+    public void respondWith(Function<String, String> responder) {
+        this.responder = responder;
+    }
+    
+    public int calls() {
+        return calls.get();
+    }
+    
+    /**
+     * The most calls that were waiting on the model at the same time since the last
+     * {@link #reset}.
+     */
+    public int maxInFlight() {
+        return maxInFlight.get();
+    }
+    
+    public void reset() {
+        calls.set(0);
+        maxInFlight.set(0);
+    }
+    
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        calls.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(latencyMillis);
+            return new ChatResponse(List.of(new Generation(responder.apply(prompt.getContents()))));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while answering", ex);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+    
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        String reply = call(prompt).getResult().getOutput().getContent();
+        return Flux.fromArray(reply.split("(?<= )"))
+                .map(fragment -> new ChatResponse(List.of(new Generation(fragment))));
+    }
+    
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return ChatOptionsBuilder.builder().build();
+    }
+    
+    @TestConfiguration
+    public static class Config {
+        
+        @Bean
+        @Primary
+        public StubChatModel stubChatModel(@Value("${stub-model.latency:0}") long latencyMillis) {
+            return new StubChatModel(latencyMillis);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.productivity.assistant.config;
+
+import com.productivity.assistant.MySqlIntegrationTest;
+import com.productivity.assistant.dto.NoteDto;
+import com.productivity.assistant.entity.User;
+import com.productivity.assistant.security.AuthenticatedUser;
+import com.productivity.assistant.service.NoteService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against a primary and a second MySQL configured as its replica. The second
+ * instance gets the primary's schema but does not replicate, so a row inserted into
+ * only one of them shows which database a read was sent to.
+ */
+class ReadWriteRoutingTest extends MySqlIntegrationTest {
+    
+    private static final MySQLContainer<?> REPLICA = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("ai_assistant")
+            .withUrlParam("serverTimezone", "UTC");
+    
+    static {
+        REPLICA.start();
+    }
+    
+    private static boolean schemaCopied;
+    
+    @Autowired
+    private NoteService noteService;
+    
+    @DynamicPropertySource
+    static void replica(DynamicPropertyRegistry registry) {
+        registry.add("replicas.nodes[0].url", REPLICA::getJdbcUrl);
+        registry.add("replicas.nodes[0].username", REPLICA::getUsername);
+        registry.add("replicas.nodes[0].password", REPLICA::getPassword);
+        registry.add("replicas.lag-query", () -> "");
+    }
+    
+    @BeforeEach
+    void copySchema() throws SQLException {
+        if (schemaCopied) {
+            return;
+        }
+        try (Connection primary = MYSQL.createConnection("");
+             Connection replica = REPLICA.createConnection("")) {
+            JdbcTemplate from = new JdbcTemplate(new SingleConnectionDataSource(primary, true));
+            JdbcTemplate to = new JdbcTemplate(new SingleConnectionDataSource(replica, true));
+            to.execute("SET FOREIGN_KEY_CHECKS = 0");
+            for (String table : from.queryForList("SHOW TABLES", String.class)) {
+                to.execute(from.queryForObject("SHOW CREATE TABLE `" + table + "`",
+                                               (rs, i) -> rs.getString(2)));
+            }
+            to.execute("SET FOREIGN_KEY_CHECKS = 1");
+        }
+        schemaCopied = true;
+    }
+    
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    @Test
+    void readOnlyTransactionsReadFromTheReplica() {
+        User user = createUserOnBoth();
+        insertReplicaOnlyNote(user.getId(), "On the replica");
+        
+        assertThat(titles(noteService.getUserNotes(user.getId(), null))).containsExactly("On the replica");
+    }
+    
+    @Test
+    void readsStayOnThePrimaryAfterTheUsersOwnWrite() {
+        User user = createUserOnBoth();
+        insertReplicaOnlyNote(user.getId(), "On the replica");
+        authenticate(user);
+        
+        noteService.createNote(note("On the primary"), user.getId());
+        
+        assertThat(titles(noteService.getUserNotes(user.getId(), null))).containsExactly("On the primary");
+        assertThat(replica().queryForObject("SELECT COUNT(*) FROM notes WHERE user_id = ? AND title = ?",
+                                            Integer.class, user.getId(), "On the primary")).isZero();
+    }
+    
+    @Test
+    void anotherUsersWriteDoesNotPinReadsToThePrimary() {
+        User reader = createUserOnBoth();
+        User writer = createUserOnBoth();
+        insertReplicaOnlyNote(reader.getId(), "On the replica");
+        authenticate(writer);
+        noteService.createNote(note("Writer's note"), writer.getId());
+        
+        authenticate(reader);
+        
+        assertThat(titles(noteService.getUserNotes(reader.getId(), null))).containsExactly("On the replica");
+    }
+    
+    private User createUserOnBoth() {
+        User user = createUser();
+        replica().update("INSERT INTO users (id, username, email, password) VALUES (?, ?, ?, ?)",
+                         user.getId(), user.getUsername(), user.getEmail(), user.getPassword());
+        return user;
+    }
+    
+    private void insertReplicaOnlyNote(Long userId, String title) {
+        replica().update("INSERT INTO notes (id, title, user_id, version, archived, text_frozen, created_at) "
+                                 + "VALUES (?, ?, ?, 0, false, false, NOW())",
+                         System.nanoTime(), title, userId);
+    }
+    
+    private static JdbcTemplate replica() {
+        return new JdbcTemplate(new DriverManagerDataSource(
+                REPLICA.getJdbcUrl(), REPLICA.getUsername(), REPLICA.getPassword()));
+    }
+    
+    private static void authenticate(User user) {
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getUsername());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+    
+    private static List<String> titles(List<NoteDto> notes) {
+        return notes.stream().map(NoteDto::getTitle).toList();
+    }
+    
+    private static NoteDto note(String title) {
+        NoteDto note = new NoteDto();
+        note.setTitle(title);
+        note.setContent("body");
+        return note;
+    }
+}
@@ -0,0 +1,95 @@
+package com.productivity.assistant.mapper;
+
+import com.productivity.assistant.dto.NoteDto;
+import com.productivity.assistant.dto.TaskDto;
+import com.productivity.assistant.entity.Note;
+import com.productivity.assistant.entity.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The hand-written mappers against the {@code BeanUtils.copyProperties} conversion
+ * they replaced. Run through {@link MapperBenchmarkTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MapperBenchmark {
+    
+    private Task task;
+    
+    private Note note;
+    
+    @Setup
+    public void setUp() {
+        note = note();
+        task = task(note);
+    }
+    
+    @Benchmark
+    public TaskDto taskBeanUtils() {
+        TaskDto dto = new TaskDto();
+        BeanUtils.copyProperties(task, dto);
+        if (task.getRelatedNote() != null) {
+            dto.setRelatedNoteId(task.getRelatedNote().getId());
+        }
+        return dto;
+    }
+    
+    @Benchmark
+    public TaskDto taskMapper() {
+        return TaskMapper.toDto(task);
+    }
+    
+    @Benchmark
+    public NoteDto noteBeanUtils() {
+        NoteDto dto = new NoteDto();
+        BeanUtils.copyProperties(note, dto);
+        return dto;
+    }
+    
+    @Benchmark
+    public NoteDto noteMapper() {
+        return NoteMapper.toDto(note);
+    }
+    
+    private static Task task(Note note) {
+        Task task = new Task();
+        task.setId(1L);
+        task.setTitle("Write the quarterly report");
+        task.setDescription("Collect numbers from finance and draft the summary section.");
+        task.setStatus(Task.TaskStatus.IN_PROGRESS);
+        task.setPriority(Task.TaskPriority.HIGH);
+        task.setDueDate(LocalDateTime.now().plusDays(3));
+        task.setRelatedNote(note);
+        task.setCreatedAt(LocalDateTime.now());
+        task.setUpdatedAt(LocalDateTime.now());
+        return task;
+    }
+    
+    private static Note note() {
+        Note note = new Note();
+        note.setId(2L);
+        note.setTitle("Quarterly report");
+        note.setContent("Numbers are due from finance on Friday.");
+        note.setCategory("work");
+        note.setCreatedAt(LocalDateTime.now());
+        note.setUpdatedAt(LocalDateTime.now());
+        return note;
+    }
+}
@@ -0,0 +1,33 @@
+package com.productivity.assistant.mapper;
+
+import com.productivity.assistant.JmhRunner;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@link MapperBenchmark} under JMH with the GC profiler and checks the
+ * hand-written mappers beat {@code BeanUtils.copyProperties} on throughput and on
+ * bytes allocated per mapped object.
+ * <p>
+ * Tagged {@code benchmark}; run with {@code mvn test -DexcludedGroups= -Dgroups=benchmark}.
+ */
+@Tag("benchmark")
+class MapperBenchmarkTest {
+    
+    @Test
+    void mappersBeatBeanUtils() throws Exception {
+        Map<String, JmhRunner.Score> scores = JmhRunner.run(MapperBenchmark.class);
+        
+        assertFaster(scores.get("taskMapper"), scores.get("taskBeanUtils"));
+        assertFaster(scores.get("noteMapper"), scores.get("noteBeanUtils"));
+    }
+    
+    private static void assertFaster(JmhRunner.Score after, JmhRunner.Score before) {
+        assertThat(after.throughput()).isGreaterThan(before.throughput());
+        assertThat(after.bytesPerOp()).isLessThan(before.bytesPerOp());
+    }
+}
@@ -0,0 +1,206 @@
+package com.productivity.assistant.repository;
+
+import com.productivity.assistant.MySqlIntegrationTest;
+import com.productivity.assistant.StatementLog;
+import com.productivity.assistant.dto.TaskFilter;
+import com.productivity.assistant.entity.Task;
+import com.productivity.assistant.service.NoteService;
+import com.productivity.assistant.service.TaskService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the common task and note listings, captures the SQL Hibernate generates and
+ * checks with EXPLAIN that MySQL reads it through one of the composite indexes
+ * rather than scanning the table. Two users with 5,000 tasks and notes each give
+ * the optimizer statistics worth using.
+ */
+@TestPropertySource(properties = StatementLog.PROPERTY)
+class ListingIndexTest extends MySqlIntegrationTest {
+    
+    private static final int ROWS_PER_USER = 5000;
+    
+    private static final int PAGE_LIMIT = 21;
+    
+    // Numbers 0 to 9,999 as seq(n), for generating rows in one INSERT ... SELECT.
+    private static final String SEQUENCE = "WITH d(n) AS (SELECT 0 UNION ALL SELECT 1 UNION ALL SELECT 2 "
+            + "UNION ALL SELECT 3 UNION ALL SELECT 4 UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 "
+            + "UNION ALL SELECT 8 UNION ALL SELECT 9), "
+            + "seq(n) AS (SELECT a.n + 10 * b.n + 100 * c.n + 1000 * e.n FROM d a, d b, d c, d e) ";
+    
+    private static long nextId = 2_000_000_000_000L;
+    
+    @Autowired
+    private TaskService taskService;
+    
+    @Autowired
+    private NoteService noteService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Long userId;
+    
+    @BeforeEach
+    void insertRows() {
+        userId = createUser().getId();
+        Long otherUserId = createUser().getId();
+        for (Long id : List.of(userId, otherUserId)) {
+            insertTasks(id);
+            insertNotes(id);
+        }
+        jdbcTemplate.execute("ANALYZE TABLE tasks, notes");
+    }
+    
+    @AfterEach
+    void stopRecording() {
+        StatementLog.stop();
+    }
+    
+    @Test
+    void unfilteredTaskPageUsesTheCreatedAtIndex() {
+        record();
+        taskService.getUserTasksPage(userId, null, null, PAGE_LIMIT - 1, false);
+        
+        assertThat(explain(userId, PAGE_LIMIT)).isEqualTo("idx_tasks_user_created");
+    }
+    
+    @Test
+    void statusFilterUsesTheStatusDueIndex() {
+        TaskFilter filter = new TaskFilter();
+        filter.setStatus(statuses(Task.TaskStatus.PENDING, Task.TaskStatus.IN_PROGRESS));
+        
+        record();
+        taskService.getUserTasks(userId, filter, false);
+        
+        assertThat(explain(userId, "PENDING", "IN_PROGRESS")).isEqualTo("idx_tasks_user_status_due");
+    }
+    
+    @Test
+    void statusAndDueRangeUseTheStatusDueIndex() {
+        LocalDateTime from = LocalDateTime.now();
+        LocalDateTime to = from.plusDays(7);
+        TaskFilter filter = new TaskFilter();
+        filter.setStatus(statuses(Task.TaskStatus.PENDING));
+        filter.setDueFrom(from);
+        filter.setDueTo(to);
+        
+        record();
+        taskService.getUserTasks(userId, filter, false);
+        
+        assertThat(explain(userId, "PENDING", from, to)).isEqualTo("idx_tasks_user_status_due");
+    }
+    
+    @Test
+    void priorityFilterUsesThePriorityCreatedIndex() {
+        TaskFilter filter = new TaskFilter();
+        filter.setPriority(Set.of(Task.TaskPriority.URGENT));
+        
+        record();
+        taskService.getUserTasksPage(userId, filter, null, PAGE_LIMIT - 1, false);
+        
+        assertThat(explain(userId, "URGENT", PAGE_LIMIT)).isEqualTo("idx_tasks_user_priority_created");
+    }
+    
+    @Test
+    void dueRangeUsesAnIndexOnUserAndDueDateOrCreatedAt() {
+        LocalDateTime from = LocalDateTime.now();
+        LocalDateTime to = from.plusDays(7);
+        TaskFilter filter = new TaskFilter();
+        filter.setDueFrom(from);
+        filter.setDueTo(to);
+        
+        record();
+        taskService.getUserTasksPage(userId, filter, null, PAGE_LIMIT - 1, false);
+        
+        // With a LIMIT, walking the created-at index in order can beat a range read on due_date.
+        assertThat(explain(userId, from, to, PAGE_LIMIT)).isIn("idx_tasks_user_due", "idx_tasks_user_created");
+    }
+    
+    @Test
+    void notePageUsesTheCreatedAtIndex() {
+        record();
+        noteService.getUserNotesPage(userId, null, null, PAGE_LIMIT - 1, false);
+        
+        assertThat(explain(userId, PAGE_LIMIT)).isEqualTo("idx_notes_user_created");
+    }
+    
+    @Test
+    void archivedNotePageUsesTheArchivedCreatedIndex() {
+        record();
+        noteService.getUserNotesPage(userId, true, null, PAGE_LIMIT - 1, false);
+        
+        assertThat(explain(userId, true, PAGE_LIMIT)).isEqualTo("idx_notes_user_archived_created");
+    }
+    
+    private void record() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        StatementLog.start();
+    }
+    
+    /**
+     * Explains the single query recorded since {@link #record}, binding {@code args}
+     * in order, and returns the index MySQL chose for it after checking it is not a
+     * full scan.
+     */
+    private String explain(Object... args) {
+        List<String> statements = StatementLog.stop();
+        assertThat(statements).hasSize(1);
+        String sql = statements.get(0);
+        assertThat(sql.chars().filter(c -> c == '?').count()).as(sql).isEqualTo(args.length);
+        
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, args);
+        assertThat(plan).as(sql).hasSize(1);
+        assertThat(plan.get(0).get("type")).as(sql).isNotEqualTo("ALL");
+        return (String) plan.get(0).get("key");
+    }
+    
+    private static Set<Task.TaskStatus> statuses(Task.TaskStatus... statuses) {
+        return new LinkedHashSet<>(List.of(statuses));
+    }
+    
+    private void insertTasks(Long ownerId) {
+        jdbcTemplate.update("INSERT INTO tasks (id, title, status, priority, due_date, ai_generated, user_id, version, "
+                                    + "created_at, updated_at) "
+                                    + SEQUENCE
+                                    + "SELECT ? + n, CONCAT('Task ', n), "
+                                    + "ELT(1 + n % 4, 'PENDING', 'IN_PROGRESS', 'COMPLETED', 'CANCELLED'), "
+                                    + "ELT(1 + (n DIV 4) % 4, 'LOW', 'MEDIUM', 'HIGH', 'URGENT'), "
+                                    + "NOW() + INTERVAL (n % 365) DAY, n % 3 = 0, ?, 0, "
+                                    + "NOW() - INTERVAL n MINUTE, NOW() - INTERVAL n MINUTE FROM seq WHERE n < ?",
+                            reserveIds(), ownerId, ROWS_PER_USER);
+    }
+    
+    private void insertNotes(Long ownerId) {
+        jdbcTemplate.update("INSERT INTO notes (id, title, content, user_id, version, archived, text_frozen, "
+                                    + "created_at, updated_at) "
+                                    + SEQUENCE
+                                    + "SELECT ? + n, CONCAT('Note ', n), 'body', ?, 0, n % 10 = 0, false, "
+                                    + "NOW() - INTERVAL n MINUTE, NOW() - INTERVAL n MINUTE FROM seq WHERE n < ?",
+                            reserveIds(), ownerId, ROWS_PER_USER);
+    }
+    
+    // Far above anything the note and task sequences hand out to other tests.
+    private static long reserveIds() {
+        long first = nextId;
+        nextId += ROWS_PER_USER;
+        return first;
+    }
+}
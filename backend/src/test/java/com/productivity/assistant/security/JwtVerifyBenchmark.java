@@ -0,0 +1,96 @@
+package com.productivity.assistant.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token work before and after the verify() change. The old path built
+ * the key and parser and checked the signature twice (validateToken, then
+ * getUsernameFromToken). The new one checks it once per token and answers repeats
+ * from the cache. Run through {@link JwtVerifyBenchmarkTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class JwtVerifyBenchmark {
+    
+    private static final String SECRET = "mySecretKey_ThisShouldBeChangedInProduction_MakeItLongerForSecurity";
+    
+    // Far more distinct tokens than the miss provider caches, so nearly every call is a miss.
+    private static final int FRESH_TOKENS = 100_000;
+    
+    private static final int MISS_CACHE_SIZE = 1_000;
+    
+    private JwtTokenProvider cached;
+    
+    private JwtTokenProvider uncached;
+    
+    private String token;
+    
+    private String[] fresh;
+    
+    private int next;
+    
+    @Setup
+    public void setUp() {
+        cached = provider(10_000);
+        uncached = provider(MISS_CACHE_SIZE);
+        token = cached.generateToken(1L, "benchmark");
+        fresh = new String[FRESH_TOKENS];
+        for (int i = 0; i < fresh.length; i++) {
+            fresh[i] = uncached.generateToken((long) i, "user-" + i);
+        }
+    }
+    
+    @Benchmark
+    public String before() {
+        String subject = parseAsBefore(token).getSubject();
+        return parseAsBefore(token) != null ? subject : null;
+    }
+    
+    @Benchmark
+    public Claims verifyNewToken() {
+        String candidate = fresh[next];
+        next = (next + 1) % fresh.length;
+        return uncached.verify(candidate).orElseThrow();
+    }
+    
+    @Benchmark
+    public Claims verifyCachedToken() {
+        return cached.verify(token).orElseThrow();
+    }
+    
+    private static Claims parseAsBefore(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+    
+    private static JwtTokenProvider provider(int cacheSize) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(provider, "verifiedCacheSize", cacheSize);
+        provider.init();
+        return provider;
+    }
+}
@@ -0,0 +1,28 @@
+package com.productivity.assistant.security;
+
+import com.productivity.assistant.JmhRunner;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@link JwtVerifyBenchmark} under JMH with the GC profiler and checks that a
+ * new token verifies faster than the old double parse, and a cached one faster still.
+ * <p>
+ * Tagged {@code benchmark}; run with {@code mvn test -DexcludedGroups= -Dgroups=benchmark}.
+ */
+@Tag("benchmark")
+class JwtVerifyBenchmarkTest {
+    
+    @Test
+    void verifiedTokenThroughput() throws Exception {
+        Map<String, JmhRunner.Score> scores = JmhRunner.run(JwtVerifyBenchmark.class);
+        
+        assertThat(scores.get("verifyNewToken").throughput()).isGreaterThan(scores.get("before").throughput());
+        assertThat(scores.get("verifyCachedToken").throughput())
+                .isGreaterThan(scores.get("verifyNewToken").throughput());
+    }
+}
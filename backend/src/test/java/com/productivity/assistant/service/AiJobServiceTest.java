@@ -0,0 +1,84 @@
+package com.productivity.assistant.service;
+
+import com.productivity.assistant.MySqlIntegrationTest;
+import com.productivity.assistant.dto.AiJobDto;
+import com.productivity.assistant.entity.AiJob;
+import com.productivity.assistant.repository.AiJobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AiJobServiceTest extends MySqlIntegrationTest {
+    
+    @Autowired
+    private AiJobService aiJobService;
+    
+    @Autowired
+    private AiJobRepository aiJobRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void staleJobOutOfAttemptsFailsInsteadOfRequeueing() {
+        Long userId = createUser().getId();
+        LocalDateTime hourAgo = LocalDateTime.now().minusHours(1);
+        AiJob exhausted = claim(aiJobService.submitGenerateTasks("text", false, userId), 3, hourAgo);
+        AiJob retryable = claim(aiJobService.submitGenerateTasks("text", false, userId), 1, hourAgo);
+        
+        aiJobService.maintain();
+        
+        assertThat(aiJobService.getJob(exhausted.getId(), userId).getStatus()).isEqualTo(AiJob.JobStatus.FAILED);
+        assertThat(aiJobService.getJob(retryable.getId(), userId).getStatus()).isEqualTo(AiJob.JobStatus.PENDING);
+    }
+    
+    @Test
+    void workerThatLostItsClaimCannotCompleteTheJob() {
+        Long userId = createUser().getId();
+        AiJob first = claim(aiJobService.submitGenerateTasks("text", true, userId), 1,
+                            LocalDateTime.now().minusHours(1));
+        aiJobService.maintain();
+        AiJob second = claim(aiJobService.getJob(first.getId(), userId), 2, LocalDateTime.now());
+        
+        assertThatThrownBy(() -> aiJobService.succeed(first, "{}")).isInstanceOf(IllegalStateException.class);
+        assertThat(aiJobService.fail(first, "late", true)).isEmpty();
+        assertThat(aiJobService.succeed(second, "{}").getStatus()).isEqualTo(AiJob.JobStatus.SUCCEEDED);
+    }
+    
+    @Test
+    void clientErrorFailsWithoutRetrying() {
+        Long userId = createUser().getId();
+        AiJob job = claim(aiJobService.submitGenerateTasks("text", false, userId), 1, LocalDateTime.now());
+        
+        assertThat(aiJobService.fail(job, "Notes not found", false))
+                .hasValueSatisfying(failed -> assertThat(failed.getStatus()).isEqualTo(AiJob.JobStatus.FAILED));
+    }
+    
+    @Test
+    void summarizeNotesIsValidatedBeforeItIsQueued() {
+        Long userId = createUser().getId();
+        
+        assertThatThrownBy(() -> aiJobService.submitSummarizeNotes(List.of(Long.MAX_VALUE), userId))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+        List<Long> tooMany = LongStream.rangeClosed(1, 501).boxed().toList();
+        assertThatThrownBy(() -> aiJobService.submitSummarizeNotes(tooMany, userId))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+    
+    private AiJob claim(AiJobDto job, int attempts, LocalDateTime startedAt) {
+        jdbcTemplate.update("UPDATE ai_jobs SET status = 'RUNNING', attempts = ?, started_at = ? WHERE id = ?",
+                            attempts, startedAt, job.getId());
+        return aiJobRepository.findById(job.getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,115 @@
+package com.productivity.assistant.service;
+
+import com.productivity.assistant.MySqlIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports 100 and 1,000,000 notes and compares the heap still reachable while each
+ * export is running. A streaming export holds one row at a time, so the two stay
+ * within a few megabytes of each other; loading the rows first would retain
+ * hundreds of megabytes for the larger one.
+ */
+class ExportHeapTest extends MySqlIntegrationTest {
+    
+    private static final long FIRST_ID = 1_000_000_000_000L;
+    
+    private static final int CONTENT_LENGTH = 200;
+    
+    private static final long SAMPLE_EVERY = 16L * 1024 * 1024;
+    
+    @Autowired
+    private ExportService exportService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void heapDoesNotGrowWithTheNumberOfExportedNotes() throws IOException {
+        Long small = createUser().getId();
+        Long large = createUser().getId();
+        insertNotes(small, 100, FIRST_ID);
+        insertNotes(large, 1_000_000, FIRST_ID + 100);
+        
+        HeapSampler smallExport = export(small);
+        HeapSampler largeExport = export(large);
+        
+        assertThat(smallExport.lines).isEqualTo(100);
+        assertThat(largeExport.lines).isEqualTo(1_000_000);
+        // 1,000,000 rows of CONTENT_LENGTH characters are well over 200 MB as Strings alone.
+        assertThat(largeExport.maxRetained - smallExport.maxRetained).isLessThan(32L * 1024 * 1024);
+    }
+    
+    private HeapSampler export(Long userId) throws IOException {
+        HeapSampler sampler = new HeapSampler();
+        sampler.sample();
+        exportService.export(userId, ExportService.Format.NDJSON, ExportService.Scope.NOTES, sampler);
+        sampler.sample();
+        return sampler;
+    }
+    
+    private void insertNotes(Long userId, int count, long firstId) {
+        jdbcTemplate.update("INSERT INTO notes (id, title, content, user_id, version, archived, text_frozen, created_at) "
+                                    + "WITH d(n) AS (SELECT 0 UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 "
+                                    + "UNION ALL SELECT 4 UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 "
+                                    + "UNION ALL SELECT 8 UNION ALL SELECT 9), "
+                                    + "seq(n) AS (SELECT a.n + 10 * b.n + 100 * c.n + 1000 * e.n + 10000 * f.n + 100000 * g.n "
+                                    + "FROM d a, d b, d c, d e, d f, d g) "
+                                    + "SELECT ? + n, CONCAT('Note ', n), REPEAT('x', ?), ?, 0, false, false, NOW() "
+                                    + "FROM seq WHERE n < ?",
+                            firstId, CONTENT_LENGTH, userId, count);
+    }
+    
+    /**
+     * Discards the export and, every {@link #SAMPLE_EVERY} bytes, records how much heap
+     * survives a full collection.
+     */
+    private static class HeapSampler extends OutputStream {
+        
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        
+        private long sinceSample;
+        
+        private long lines;
+        
+        private long maxRetained;
+        
+        @Override
+        public void write(int b) {
+            count(b == '\n' ? 1 : 0, 1);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            int newlines = 0;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    newlines++;
+                }
+            }
+            count(newlines, len);
+        }
+        
+        private void count(int newlines, int bytes) {
+            lines += newlines;
+            sinceSample += bytes;
+            if (sinceSample >= SAMPLE_EVERY) {
+                sinceSample = 0;
+                sample();
+            }
+        }
+        
+        private void sample() {
+            System.gc();
+            maxRetained = Math.max(maxRetained, memory.getHeapMemoryUsage().getUsed());
+        }
+    }
+}
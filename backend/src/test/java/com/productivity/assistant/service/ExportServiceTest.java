@@ -0,0 +1,71 @@
+package com.productivity.assistant.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.productivity.assistant.MySqlIntegrationTest;
+import com.productivity.assistant.dto.NoteDto;
+import com.productivity.assistant.repository.NoteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportServiceTest extends MySqlIntegrationTest {
+    
+    @Autowired
+    private ExportService exportService;
+    
+    @Autowired
+    private NoteService noteService;
+    
+    @Autowired
+    private NoteTieringService noteTieringService;
+    
+    @Autowired
+    private NoteRepository noteRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Test
+    void exportsEveryArchivedNoteOnceWhetherOrNotItHasText() throws IOException {
+        Long userId = createUser().getId();
+        List<NoteDto> created = noteService.createNotes(List.of(
+                note("Title only", null, true),
+                note("Frozen", "archived body", true),
+                note("Hot", "hot body", false)), userId);
+        noteTieringService.sweep();
+        
+        assertThat(noteRepository.findById(created.get(0).getId()).orElseThrow().isTextFrozen()).isFalse();
+        assertThat(noteRepository.findById(created.get(1).getId()).orElseThrow().isTextFrozen()).isTrue();
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(userId, ExportService.Format.NDJSON, ExportService.Scope.NOTES, out);
+        
+        Map<String, JsonNode> notes = new HashMap<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode note = objectMapper.readTree(line).get("data");
+            assertThat(notes.put(note.get("title").asText(), note)).isNull();
+        }
+        assertThat(notes).containsOnlyKeys("Title only", "Frozen", "Hot");
+        assertThat(notes.get("Title only").get("archived").asBoolean()).isTrue();
+        assertThat(notes.get("Title only").get("content").isNull()).isTrue();
+        assertThat(notes.get("Frozen").get("content").asText()).isEqualTo("archived body");
+        assertThat(notes.get("Frozen").has("textFrozen")).isFalse();
+    }
+    
+    private static NoteDto note(String title, String content, boolean archived) {
+        NoteDto note = new NoteDto();
+        note.setTitle(title);
+        note.setContent(content);
+        note.setArchived(archived);
+        return note;
+    }
+}
@@ -0,0 +1,138 @@
+package com.productivity.assistant.service;
+
+import com.productivity.assistant.MySqlIntegrationTest;
+import com.productivity.assistant.dto.NoteDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Storage saved and read latency added by moving archived note text to the
+ * compressed cold table. Creates 1,000 archived notes of about 4 KB of prose each,
+ * measures bytes stored and read times while they are still in {@code notes}, runs
+ * the tiering sweep, and measures again. Reads are warmed up and the median of
+ * several rounds is reported.
+ * <p>
+ * Tagged {@code benchmark}; run with {@code mvn test -DexcludedGroups= -Dgroups=benchmark}.
+ */
+@Tag("benchmark")
+class NoteTieringBenchmarkTest extends MySqlIntegrationTest {
+    
+    private static final int NOTES = 1_000;
+    
+    private static final int READ_ROUNDS = 5;
+    
+    private static final String[] WORDS = ("meeting budget review draft client deadline follow up schedule "
+            + "project report team quarter goals metrics design launch plan notes action items owner "
+            + "risk update feedback priority blocked done next week call email").split(" ");
+    
+    @Autowired
+    private NoteService noteService;
+    
+    @Autowired
+    private NoteTieringService noteTieringService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Test
+    void storageSavedAndReadLatencyAdded() {
+        Long userId = createUser().getId();
+        Random random = new Random(42);
+        List<NoteDto> notes = new ArrayList<>(NOTES);
+        long rawBytes = 0;
+        for (int i = 0; i < NOTES; i++) {
+            NoteDto note = new NoteDto();
+            note.setTitle("Archived note " + i);
+            note.setContent(prose(random, 4096));
+            note.setAiSummary(prose(random, 300));
+            note.setArchived(true);
+            notes.add(note);
+            rawBytes += utf8Length(note.getContent()) + utf8Length(note.getAiSummary());
+        }
+        List<Long> ids = noteService.createNotes(notes, userId).stream().map(NoteDto::getId).toList();
+        
+        long hotBytes = storedBytes("SELECT COALESCE(SUM(LENGTH(content) + LENGTH(ai_summary)), 0) FROM notes "
+                                            + "WHERE user_id = ?", userId);
+        double hotRead = readMicros(ids, userId);
+        double hotList = listMillis(userId);
+        
+        noteTieringService.sweep();
+        
+        long coldBytes = storedBytes("SELECT COALESCE(SUM(LENGTH(a.content) + LENGTH(a.ai_summary)), 0) "
+                                             + "FROM note_archive a JOIN notes n ON n.id = a.note_id WHERE n.user_id = ?",
+                                     userId);
+        double coldRead = readMicros(ids, userId);
+        double coldList = listMillis(userId);
+        
+        System.out.printf("text as UTF-8        %10d bytes%n", rawBytes);
+        System.out.printf("stored in notes      %10d bytes (%.0f%% of text)%n", hotBytes, 100.0 * hotBytes / rawBytes);
+        System.out.printf("stored in archive    %10d bytes (%.0f%% of text)%n", coldBytes, 100.0 * coldBytes / rawBytes);
+        System.out.printf("getNoteById          %8.0f us hot %8.0f us cold (+%.0f us)%n",
+                          hotRead, coldRead, coldRead - hotRead);
+        System.out.printf("getUserNotes(true)   %8.1f ms hot %8.1f ms cold (+%.1f ms)%n",
+                          hotList, coldList, coldList - hotList);
+        
+        assertThat(storedBytes("SELECT COUNT(*) FROM note_archive a JOIN notes n ON n.id = a.note_id "
+                                       + "WHERE n.user_id = ?", userId)).isEqualTo(NOTES);
+        assertThat(coldBytes).isLessThan(rawBytes);
+    }
+    
+    /**
+     * Median over several rounds of reading every note once from the database. The
+     * first round only warms up the read path and is not counted.
+     */
+    private double readMicros(List<Long> ids, Long userId) {
+        double[] rounds = new double[READ_ROUNDS];
+        for (int round = -1; round < READ_ROUNDS; round++) {
+            entityManagerFactory.getCache().evictAll();
+            long start = System.nanoTime();
+            for (Long id : ids) {
+                assertThat(noteService.getNoteById(id, userId).getContent()).isNotNull();
+            }
+            if (round >= 0) {
+                rounds[round] = (System.nanoTime() - start) / 1e3 / ids.size();
+            }
+        }
+        Arrays.sort(rounds);
+        return rounds[READ_ROUNDS / 2];
+    }
+    
+    private double listMillis(Long userId) {
+        noteService.getUserNotes(userId, true);
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            assertThat(noteService.getUserNotes(userId, true)).hasSize(NOTES);
+        }
+        return (System.nanoTime() - start) / 1e6 / 5;
+    }
+    
+    private long storedBytes(String sql, Long userId) {
+        return jdbcTemplate.queryForObject(sql, Long.class, userId);
+    }
+    
+    private static String prose(Random random, int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(12) == 0 ? ". " : " ");
+        }
+        return text.toString();
+    }
+    
+    private static long utf8Length(String text) {
+        return text.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,158 @@
+package com.productivity.assistant.service;
+
+import com.productivity.assistant.MySqlIntegrationTest;
+import com.productivity.assistant.StatementLog;
+import com.productivity.assistant.dto.NoteDto;
+import com.productivity.assistant.dto.TaskDto;
+import com.productivity.assistant.entity.Task;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Counts the SQL each CRUD operation sends for the task or note itself. The second
+ * level cache is emptied first so lookups reach the database; tombstone rows and
+ * their sequence, which deletes write for delta sync, are not counted.
+ */
+@TestPropertySource(properties = StatementLog.PROPERTY)
+class OwnerScopedQueryTest extends MySqlIntegrationTest {
+    
+    @Autowired
+    private TaskService taskService;
+    
+    @Autowired
+    private NoteService noteService;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @AfterEach
+    void stopRecording() {
+        StatementLog.stop();
+    }
+    
+    @Test
+    void taskLookupIsOneStatement() {
+        Long userId = createUser().getId();
+        Long taskId = taskService.createTask(task("Task"), userId).getId();
+        
+        record();
+        taskService.getTaskById(taskId, userId);
+        
+        assertThat(statements()).singleElement().satisfies(sql -> assertThat(sql).startsWith("select"));
+    }
+    
+    @Test
+    void anotherUsersTaskIsNotFoundWithOneStatement() {
+        Long ownerId = createUser().getId();
+        Long otherId = createUser().getId();
+        Long taskId = taskService.createTask(task("Task"), ownerId).getId();
+        
+        record();
+        assertThatThrownBy(() -> taskService.getTaskById(taskId, otherId)).hasMessage("Task not found");
+        
+        assertThat(statements()).hasSize(1);
+    }
+    
+    @Test
+    void repeatedTaskLookupIsServedFromTheCache() {
+        Long userId = createUser().getId();
+        Long taskId = taskService.createTask(task("Task"), userId).getId();
+        
+        record();
+        taskService.getTaskById(taskId, userId);
+        taskService.getTaskById(taskId, userId);
+        
+        assertThat(statements()).hasSize(1);
+    }
+    
+    @Test
+    void taskUpdateIsOneLookupAndOneUpdate() {
+        Long userId = createUser().getId();
+        TaskDto created = taskService.createTask(task("Task"), userId);
+        
+        record();
+        taskService.updateTask(created.getId(), task("Renamed"), userId);
+        
+        assertThat(statements()).satisfiesExactly(
+                sql -> assertThat(sql).startsWith("select"),
+                sql -> assertThat(sql).startsWith("update"));
+    }
+    
+    @Test
+    void taskDeleteIsOneStatement() {
+        Long userId = createUser().getId();
+        Long taskId = taskService.createTask(task("Task"), userId).getId();
+        
+        record();
+        taskService.deleteTask(taskId, userId);
+        
+        assertThat(statements()).singleElement().satisfies(sql -> assertThat(sql).startsWith("delete"));
+    }
+    
+    @Test
+    void noteLookupIsOneStatement() {
+        Long userId = createUser().getId();
+        Long noteId = noteService.createNote(note("Note"), userId).getId();
+        
+        record();
+        noteService.getNoteById(noteId, userId);
+        
+        assertThat(statements()).singleElement().satisfies(sql -> assertThat(sql).startsWith("select"));
+    }
+    
+    @Test
+    void noteUpdateIsOneLookupAndOneUpdate() {
+        Long userId = createUser().getId();
+        NoteDto created = noteService.createNote(note("Note"), userId);
+        
+        record();
+        noteService.updateNote(created.getId(), note("Renamed"), userId);
+        
+        assertThat(statements()).satisfiesExactly(
+                sql -> assertThat(sql).startsWith("select"),
+                sql -> assertThat(sql).startsWith("update"));
+    }
+    
+    @Test
+    void noteDeleteIsOneStatement() {
+        Long userId = createUser().getId();
+        Long noteId = noteService.createNote(note("Note"), userId).getId();
+        
+        record();
+        noteService.deleteNote(noteId, userId);
+        
+        assertThat(statements()).singleElement().satisfies(sql -> assertThat(sql).startsWith("delete"));
+    }
+    
+    private void record() {
+        entityManagerFactory.getCache().evictAll();
+        StatementLog.start();
+    }
+    
+    private static List<String> statements() {
+        return StatementLog.stop().stream().filter(sql -> !sql.contains("tombstone")).toList();
+    }
+    
+    private static TaskDto task(String title) {
+        TaskDto task = new TaskDto();
+        task.setTitle(title);
+        task.setStatus(Task.TaskStatus.PENDING);
+        task.setPriority(Task.TaskPriority.MEDIUM);
+        return task;
+    }
+    
+    private static NoteDto note(String title) {
+        NoteDto note = new NoteDto();
+        note.setTitle(title);
+        note.setContent("body");
+        return note;
+    }
+}
@@ -0,0 +1,83 @@
+package com.productivity.assistant.service;
+
+import com.productivity.assistant.MySqlIntegrationTest;
+import com.productivity.assistant.dto.SyncResponse;
+import com.productivity.assistant.dto.TaskDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(properties = "sync.settle-lag=0s")
+class SyncServiceTest extends MySqlIntegrationTest {
+    
+    @Autowired
+    private SyncService syncService;
+    
+    @Autowired
+    private TaskService taskService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Test
+    void writeThatCommitsAfterALaterOneIsNotSkipped() throws Exception {
+        Long userId = createUser().getId();
+        TaskDto slow = taskService.createTask(task("slow"), userId);
+        String cursor = syncService.changesSince(userId, null).getCursor();
+        
+        // The slow update flushes (and stamps updatedAt) first but commits last.
+        CountDownLatch flushed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> slowWrite = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    taskService.updateTask(slow.getId(), task("slow, updated"), userId);
+                    status.flush();
+                    flushed.countDown();
+                    await(release);
+                }));
+        flushed.await();
+        TaskDto fast = taskService.createTask(task("fast"), userId);
+        
+        SyncResponse first = syncService.changesSince(userId, cursor);
+        assertThat(first.getTasks()).extracting(TaskDto::getId).containsExactly(fast.getId());
+        
+        release.countDown();
+        slowWrite.get();
+        
+        SyncResponse second = syncService.changesSince(userId, first.getCursor());
+        assertThat(second.getTasks()).extracting(TaskDto::getTitle).containsExactly("slow, updated");
+    }
+    
+    @Test
+    void deletionsAfterTheCursorAreReported() {
+        Long userId = createUser().getId();
+        TaskDto doomed = taskService.createTask(task("doomed"), userId);
+        String cursor = syncService.changesSince(userId, null).getCursor();
+        
+        taskService.deleteTask(doomed.getId(), userId);
+        
+        assertThat(syncService.changesSince(userId, cursor).getDeletedTaskIds()).containsExactly(doomed.getId());
+    }
+    
+    private static TaskDto task(String title) {
+        TaskDto task = new TaskDto();
+        task.setTitle(title);
+        return task;
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.productivity.assistant.service;
+
+import com.productivity.assistant.MySqlIntegrationTest;
+import com.productivity.assistant.dto.BatchRequest;
+import com.productivity.assistant.dto.TaskDto;
+import com.productivity.assistant.entity.Task;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rows per second for a 10,000-task import through {@code /api/tasks/batch}, against
+ * creating tasks one call at a time as {@code generate-tasks} used to. Both paths are
+ * warmed up first and then measured over several rounds; the median is compared and
+ * printed with the range, along with how many JDBC statements one round prepared.
+ * <p>
+ * Tagged {@code benchmark}; run with {@code mvn test -DexcludedGroups= -Dgroups=benchmark}.
+ */
+@Tag("benchmark")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class TaskImportBenchmarkTest extends MySqlIntegrationTest {
+    
+    private static final int BATCH_ROWS = 10_000;
+    
+    private static final int SINGLE_ROWS = 1_000;
+    
+    private static final int WARMUP_ROUNDS = 1;
+    
+    private static final int ROUNDS = 3;
+    
+    @Autowired
+    private TaskService taskService;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Test
+    void batchImportRowsPerSecond() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        
+        // Warm up both paths so neither measurement pays for JIT compilation and cold pools.
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            importOneByOne(SINGLE_ROWS);
+            importBatch(BATCH_ROWS);
+        }
+        
+        double[] singleRates = new double[ROUNDS];
+        double[] batchRates = new double[ROUNDS];
+        long singleStatements = 0;
+        long batchStatements = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            statistics.clear();
+            singleRates[i] = SINGLE_ROWS * 1e9 / importOneByOne(SINGLE_ROWS);
+            singleStatements = statistics.getPrepareStatementCount();
+            statistics.clear();
+            batchRates[i] = BATCH_ROWS * 1e9 / importBatch(BATCH_ROWS);
+            batchStatements = statistics.getPrepareStatementCount();
+        }
+        double singleRate = report("one createTask per row", SINGLE_ROWS, singleRates, singleStatements);
+        double batchRate = report("applyBatch", BATCH_ROWS, batchRates, batchStatements);
+        
+        assertThat(batchRate).isGreaterThan(singleRate);
+    }
+    
+    private long importOneByOne(int rows) {
+        Long userId = createUser().getId();
+        List<TaskDto> tasks = tasks(rows);
+        long start = System.nanoTime();
+        for (TaskDto task : tasks) {
+            taskService.createTask(task, userId);
+        }
+        return System.nanoTime() - start;
+    }
+    
+    private long importBatch(int rows) {
+        Long userId = createUser().getId();
+        BatchRequest<TaskDto> batch = new BatchRequest<>();
+        batch.setCreate(tasks(rows));
+        long start = System.nanoTime();
+        int created = taskService.applyBatch(batch, userId).getCreated().size();
+        long nanos = System.nanoTime() - start;
+        assertThat(created).isEqualTo(rows);
+        return nanos;
+    }
+    
+    /**
+     * Prints the median and range of the measured rounds and returns the median.
+     */
+    private static double report(String name, int rows, double[] rates, long statements) {
+        double[] sorted = rates.clone();
+        Arrays.sort(sorted);
+        double median = sorted[sorted.length / 2];
+        System.out.printf("%-25s %6d rows %8.0f rows/s (min %.0f, max %.0f, %d rounds) %7d statements prepared%n",
+                          name, rows, median, sorted[0], sorted[sorted.length - 1], sorted.length, statements);
+        return median;
+    }
+    
+    private static List<TaskDto> tasks(int count) {
+        List<TaskDto> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TaskDto task = new TaskDto();
+            task.setTitle("Imported task " + i);
+            task.setDescription("Row " + i + " of a benchmark import");
+            task.setStatus(Task.TaskStatus.PENDING);
+            task.setPriority(Task.TaskPriority.MEDIUM);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+}
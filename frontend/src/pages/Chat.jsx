@@ -88,9 +88,27 @@ const Chat = () => {
   };
 
   const handleIncomingMessage = (data) => {
+    // Streamed replies arrive as PARTIAL fragments followed by a final CHAT frame
+    // carrying the full text; all of them share a messageId.
+    if (data.messageId && (data.type === 'PARTIAL' || data.type === 'CHAT')) {
+      setMessages(prev => {
+        const index = prev.findIndex(m => m.messageId === data.messageId);
+        if (index === -1) {
+          return [...prev, { ...data, type: 'assistant' }];
+        }
+        const existing = prev[index];
+        const content = data.type === 'PARTIAL' ? existing.content + data.content : data.content;
+        return [...prev.slice(0, index), { ...existing, content }, ...prev.slice(index + 1)];
+      });
+      if (data.type === 'CHAT') {
+        setIsSending(false);
+      }
+      return;
+    }
+
     setMessages(prev => [...prev, {
       ...data,
-      type: 'assistant'
+      type: data.type === 'ERROR' ? 'error' : 'assistant'
     }]);
     setIsSending(false);
   };
@@ -115,10 +133,8 @@ const Chat = () => {
     } else {
       // Fallback to REST API
       try {
-        const history = messages.slice(-10).map(m => 
-          `${m.type === 'user' ? 'User' : 'Assistant'}: ${m.content}`
-        );
-        const response = await aiAPI.chat(input, history);
+        // The server keeps the conversation history for both WebSocket and REST chat.
+        const response = await aiAPI.chat(input);
         
         setMessages(prev => [...prev, {
           content: response.data.response,
@@ -143,6 +159,8 @@ const Chat = () => {
   const clearChat = () => {
     if (isConnected) {
       wsService.clearChatHistory();
+    } else {
+      aiAPI.clearChat().catch(error => console.error('Error clearing chat history:', error));
     }
     setMessages([{
       content: "Chat history cleared. How can I help you?",
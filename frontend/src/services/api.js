@@ -76,7 +76,8 @@ export const aiAPI = {
   generateTasks: (text, autoCreate = false) => 
     api.post('/ai/generate-tasks', { text, autoCreate: autoCreate.toString() }),
   getDailySummary: () => api.get('/ai/daily-summary'),
-  chat: (message, history = []) => api.post('/ai/chat', { message, history }),
+  chat: (message) => api.post('/ai/chat', { message }),
+  clearChat: () => api.delete('/ai/chat/history'),
   getInsights: () => api.get('/ai/insights'),
 };
 
@@ -0,0 +1,6 @@
+-- Account the replica connects with. Kept out of the binary log so the replica
+-- does not try to create it too.
+SET SESSION sql_log_bin = 0;
+CREATE USER 'replicator'@'%' IDENTIFIED WITH mysql_native_password BY 'replicator';
+GRANT REPLICATION SLAVE ON *.* TO 'replicator'@'%';
+SET SESSION sql_log_bin = 1;
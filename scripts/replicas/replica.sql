@@ -0,0 +1,10 @@
+-- Runs once when the replica's data directory is created. With GTID auto-positioning
+-- the replica starts from the primary's first transaction, so it also receives the
+-- ai_assistant database and every table created after it.
+CHANGE REPLICATION SOURCE TO
+    SOURCE_HOST = 'mysql-primary',
+    SOURCE_PORT = 3306,
+    SOURCE_USER = 'replicator',
+    SOURCE_PASSWORD = 'replicator',
+    SOURCE_AUTO_POSITION = 1;
+START REPLICA;